@@ -0,0 +1,124 @@
+package com.homekeeper.benchmarks;
+
+import com.homekeeper.models.ERoles;
+import com.homekeeper.models.Role;
+import com.homekeeper.models.User;
+import com.homekeeper.repository.TokenRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.UserAuthView;
+import com.homekeeper.security.jwt.AuthTokenFilter;
+import com.homekeeper.security.jwt.JwtCodec;
+import com.homekeeper.security.jwt.JwtUtils;
+import com.homekeeper.security.jwt.TokenStatusCache;
+import com.homekeeper.security.jwt.UserVersionCache;
+import com.homekeeper.security.services.UserDetailsImpl;
+import com.homekeeper.security.services.UserDetailsServiceImpl;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сборка компонентов безопасности без Spring контекста: репозитории заменены Mockito заглушками,
+ * поэтому замеряется только работа с токенами и данными пользователя.
+ */
+final class BenchmarkFixtures {
+    static final String JWT_SECRET = "1234567890";
+    static final int JWT_EXPIRATION_MS = 172800000;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtils jwtUtils(JwtCodec jwtCodec) {
+        TokenRepository tokenRepository = Mockito.mock(TokenRepository.class);
+        Mockito.when(tokenRepository.findActiveByTokenHash(ArgumentMatchers.any())).thenReturn(Boolean.TRUE);
+
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtUtils, "tokenRepository", tokenRepository);
+        ReflectionTestUtils.setField(jwtUtils, "tokenStatusCache", new TokenStatusCache(10000, 300000));
+        ReflectionTestUtils.setField(jwtUtils, "jwtCodec", jwtCodec);
+        return jwtUtils;
+    }
+
+    static AuthTokenFilter authTokenFilter(JwtUtils jwtUtils) {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findTokenVersionById(ArgumentMatchers.anyLong())).thenReturn(0);
+
+        AuthTokenFilter filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", new UserDetailsServiceImpl(1000, 300000));
+        ReflectionTestUtils.setField(filter, "userVersionCache", new UserVersionCache(userRepository, 10000, 300000));
+        return filter;
+    }
+
+    static User user() {
+        User user = new User("admin", "admin@admin.com", "$2a$10$hash");
+        user.setId(1L);
+        Role adminRole = new Role(ERoles.ROLE_ADMIN);
+        adminRole.setId(1);
+        Role userRole = new Role(ERoles.ROLE_USER);
+        userRole.setId(2);
+        Set<Role> roles = new HashSet<>();
+        roles.add(adminRole);
+        roles.add(userRole);
+        user.setRoles(roles);
+        return user;
+    }
+
+    static List<UserAuthView> authViews() {
+        List<UserAuthView> rows = new ArrayList<>();
+        rows.add(new AuthView(ERoles.ROLE_ADMIN));
+        rows.add(new AuthView(ERoles.ROLE_USER));
+        return rows;
+    }
+
+    static Authentication authentication() {
+        UserDetailsImpl principal = UserDetailsImpl.build(user());
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static final class AuthView implements UserAuthView {
+        private final ERoles roleName;
+
+        private AuthView(ERoles roleName) {
+            this.roleName = roleName;
+        }
+
+        @Override
+        public Long getId() {
+            return 1L;
+        }
+
+        @Override
+        public String getUserName() {
+            return "admin";
+        }
+
+        @Override
+        public String getUserEmail() {
+            return "admin@admin.com";
+        }
+
+        @Override
+        public String getPassword() {
+            return "$2a$10$hash";
+        }
+
+        @Override
+        public Integer getTokenVersion() {
+            return 0;
+        }
+
+        @Override
+        public ERoles getRoleName() {
+            return roleName;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.homekeeper.benchmarks;
+
+import com.homekeeper.security.jwt.JwtCodec;
+import com.homekeeper.security.jwt.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка jwt. Проверка замеряется с попаданием в кэш claims JwtCodec (cached)
+ * и с полной проверкой подписи на каждый вызов (uncached: кэш на одну запись, токены чередуются).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtUtilsBenchmark {
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private Authentication authentication;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        cachedJwtUtils = BenchmarkFixtures.jwtUtils(new JwtCodec(BenchmarkFixtures.JWT_SECRET, 10000, 300000));
+        uncachedJwtUtils = BenchmarkFixtures.jwtUtils(new JwtCodec(BenchmarkFixtures.JWT_SECRET, 1, 300000));
+        authentication = BenchmarkFixtures.authentication();
+        token = cachedJwtUtils.generateJwtToken(authentication);
+        String first = uncachedJwtUtils.generateJwtToken(authentication);
+        // issuedAt в секундах, иначе токены совпадут
+        Thread.sleep(1100);
+        tokens = new String[]{first, uncachedJwtUtils.generateJwtToken(authentication)};
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return cachedJwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateJwtTokenCached() {
+        return cachedJwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtTokenCached() {
+        return cachedJwtUtils.getUserNameFromJwtToken(token);
+    }
+
+    @Benchmark
+    public boolean validateJwtTokenUncached() {
+        next ^= 1;
+        return uncachedJwtUtils.validateJwtToken(tokens[next]);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtTokenUncached() {
+        next ^= 1;
+        return uncachedJwtUtils.getUserNameFromJwtToken(tokens[next]);
+    }
+}
@@ -0,0 +1,82 @@
+package com.homekeeper.benchmarks;
+
+import com.homekeeper.config.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание Money и арифметика над суммами.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+    public String amount = "35.05";
+    public String other = "75.55";
+    public int homeMates = 3;
+
+    private final int[] weights = {1, 2, 1, 3, 1};
+    private final long[] parts = new long[5];
+
+    private final Money money = new Money("35.05");
+    private final Money otherMoney = new Money("75.55");
+
+    @Benchmark
+    public Money construct() {
+        return new Money(amount);
+    }
+
+    @Benchmark
+    public Money add() {
+        return money.add(otherMoney);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return otherMoney.subtract(money);
+    }
+
+    @Benchmark
+    public Money multiplyByInt() {
+        return money.multiplyByInt(homeMates);
+    }
+
+    @Benchmark
+    public Money divideByInt() {
+        return otherMoney.divideByInt(homeMates);
+    }
+
+    @Benchmark
+    public Money addMoneyFromString() {
+        return money.addMoney(other);
+    }
+
+    @Benchmark
+    public Money[] allocateEqual() {
+        return otherMoney.allocate(homeMates);
+    }
+
+    @Benchmark
+    public long[] allocateMinorUnitsByWeights() {
+        Money.allocateMinorUnits(otherMoney.getMinorUnits(), weights, parts);
+        return parts;
+    }
+
+    @Benchmark
+    public BigDecimal getValue() {
+        return money.getValue();
+    }
+}
@@ -0,0 +1,71 @@
+package com.homekeeper.benchmarks;
+
+import com.homekeeper.config.Money;
+import com.homekeeper.config.MoneyParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор суммы: однопроходный MoneyParser против прежнего пути
+ * String.matches + new BigDecimal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyParseBenchmark {
+    @Param({"35.50", "1234567.89", "7"})
+    public String amount;
+
+    private String request;
+    private int start;
+    private int end;
+
+    @Setup
+    public void setUp() {
+        request = "{\"balanceSumOfBalance\":" + amount + "}";
+        start = request.indexOf(':') + 1;
+        end = request.length() - 1;
+    }
+
+    @Benchmark
+    public long legacyRegexBigDecimal() {
+        if (!amount.matches("-?\\d+(\\.\\d+)?")) {
+            throw new IllegalArgumentException(amount);
+        }
+        BigDecimal value = new BigDecimal(amount);
+        if (value.compareTo(new BigDecimal(0)) < 0) {
+            throw new IllegalArgumentException(amount);
+        }
+        return value.setScale(2, BigDecimal.ROUND_DOWN).unscaledValue().longValue();
+    }
+
+    @Benchmark
+    public long parser() {
+        return MoneyParser.parseMinorUnits(amount, 2);
+    }
+
+    @Benchmark
+    public long parserFromRequestSlice() {
+        return MoneyParser.parseMinorUnits(request, start, end, 2);
+    }
+
+    @Benchmark
+    public Money moneyConstructor() {
+        return new Money(amount);
+    }
+}
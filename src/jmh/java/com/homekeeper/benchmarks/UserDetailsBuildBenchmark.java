@@ -0,0 +1,41 @@
+package com.homekeeper.benchmarks;
+
+import com.homekeeper.models.User;
+import com.homekeeper.repository.projections.UserAuthView;
+import com.homekeeper.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка UserDetailsImpl из сущности User и из строк проекции UserAuthView.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserDetailsBuildBenchmark {
+    private final User user = BenchmarkFixtures.user();
+    private final List<UserAuthView> rows = BenchmarkFixtures.authViews();
+
+    @Benchmark
+    public UserDetailsImpl buildFromUser() {
+        return UserDetailsImpl.build(user);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildFromProjection() {
+        return UserDetailsImpl.build(rows);
+    }
+}
@@ -0,0 +1,246 @@
+package com.homekeeper.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homekeeper.config.Money;
+import com.homekeeper.models.ERoles;
+import com.homekeeper.models.Role;
+import com.homekeeper.models.User;
+import com.homekeeper.models.UserBalance;
+import com.homekeeper.payload.response.UserResponse;
+import com.homekeeper.repository.projections.BalanceEntryView;
+import com.homekeeper.repository.projections.UserRoleView;
+import com.homekeeper.repository.projections.UserSummaryView;
+import com.homekeeper.services.UserInfoJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ответ getUserInfo: прежняя сериализация UserResponse с сущностями UserBalance (@JsonIdentityInfo,
+ * весь ответ в byte[]) против записи плоских строк проекций через JsonGenerator в поток.
+ * Методы *FirstByte останавливаются на первой записи в поток ответа и показывают время до первого байта.
+ * Аллокации - с профайлером gc (по умолчанию в профиле benchmark).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserInfoSerializationBenchmark {
+    private static final FirstByteException FIRST_BYTE = new FirstByteException();
+
+    @Param({"100", "10000"})
+    public int balances;
+
+    private ObjectMapper objectMapper;
+    private JsonFactory jsonFactory;
+    private UserResponse entityResponse;
+    private UserSummaryView summary;
+    private List<UserRoleView> roles;
+    private List<BalanceEntryView> rows;
+
+    private final OutputStream discard = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final OutputStream stopAtFirstByte = new OutputStream() {
+        @Override
+        public void write(int b) {
+            throw FIRST_BYTE;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            throw FIRST_BYTE;
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        jsonFactory = objectMapper.getFactory();
+
+        User user = BenchmarkFixtures.user();
+        user.setCreationDate(LocalDateTime.of(2020, 11, 1, 12, 0));
+        Set<UserBalance> entities = new HashSet<>();
+        rows = new ArrayList<>(balances);
+        long balance = 0;
+        for (int i = 0; i < balances; i++) {
+            balance += 1050;
+            LocalDateTime date = LocalDateTime.of(2020, 11, 1, 12, 0).plusHours(i);
+            UserBalance entity = new UserBalance(Money.ofMinorUnits(1050), Money.ofMinorUnits(balance));
+            entity.setId((long) i + 1);
+            entity.setBalanceDate(date);
+            entity.setUser(user);
+            entities.add(entity);
+            rows.add(new EntryView((long) i + 1, date, Money.ofMinorUnits(1050), Money.ofMinorUnits(balance)));
+        }
+        user.setBalances(entities);
+        entityResponse = new UserResponse(user.getUserName(), user.getUserEmail(), user.getCreationDate(),
+                user.getRoles(), entities);
+
+        summary = new SummaryView(user);
+        roles = new ArrayList<>();
+        for (Role role : user.getRoles()) {
+            roles.add(new RoleView(user.getId(), role));
+        }
+    }
+
+    @Benchmark
+    public void entityObjectMapper() throws IOException {
+        discard.write(objectMapper.writeValueAsBytes(entityResponse));
+    }
+
+    @Benchmark
+    public void streamingGenerator() throws IOException {
+        writeStreaming(discard);
+    }
+
+    @Benchmark
+    public boolean entityObjectMapperFirstByte() throws IOException {
+        try {
+            stopAtFirstByte.write(objectMapper.writeValueAsBytes(entityResponse));
+            return false;
+        } catch (FirstByteException e) {
+            return true;
+        }
+    }
+
+    @Benchmark
+    public boolean streamingGeneratorFirstByte() throws IOException {
+        try {
+            writeStreaming(stopAtFirstByte);
+            return false;
+        } catch (FirstByteException e) {
+            return true;
+        }
+    }
+
+    private void writeStreaming(OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        UserInfoJsonWriter.writeUserInfo(generator, summary, roles, rows.iterator());
+        generator.flush();
+    }
+
+    /**
+     * Остановка записи на первом байте, без стека вызовов.
+     */
+    private static final class FirstByteException extends RuntimeException {
+        private FirstByteException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class SummaryView implements UserSummaryView {
+        private final User user;
+
+        private SummaryView(User user) {
+            this.user = user;
+        }
+
+        @Override
+        public Long getId() {
+            return user.getId();
+        }
+
+        @Override
+        public String getUserName() {
+            return user.getUserName();
+        }
+
+        @Override
+        public String getUserEmail() {
+            return user.getUserEmail();
+        }
+
+        @Override
+        public LocalDateTime getCreationDate() {
+            return user.getCreationDate();
+        }
+    }
+
+    private static final class RoleView implements UserRoleView {
+        private final Long userId;
+        private final Role role;
+
+        private RoleView(Long userId, Role role) {
+            this.userId = userId;
+            this.role = role;
+        }
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public Integer getRoleId() {
+            return role.getId();
+        }
+
+        @Override
+        public ERoles getRoleName() {
+            return role.getRoleName();
+        }
+    }
+
+    private static final class EntryView implements BalanceEntryView {
+        private final Long id;
+        private final LocalDateTime balanceDate;
+        private final Money amount;
+        private final Money balance;
+
+        private EntryView(Long id, LocalDateTime balanceDate, Money amount, Money balance) {
+            this.id = id;
+            this.balanceDate = balanceDate;
+            this.amount = amount;
+            this.balance = balance;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getBalanceDate() {
+            return balanceDate;
+        }
+
+        @Override
+        public Money getAmount() {
+            return amount;
+        }
+
+        @Override
+        public Money getBalance() {
+            return balance;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.homekeeper.config;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Формат даты и времени в ответах, совпадает с pattern в @JsonFormat моделей.
+ * Используется там, где json или csv пишутся вручную, без ObjectMapper.
+ * @version 0.013
+ * @author habatoo
+ */
+public final class DateFormats {
+    public static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private DateFormats() {
+    }
+}
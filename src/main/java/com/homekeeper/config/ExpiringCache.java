@@ -0,0 +1,161 @@
+package com.homekeeper.config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасный кэш с ограничением по размеру и времени жизни записей.
+ * При переполнении сначала удаляются просроченные записи, затем произвольные.
+ * Ведет счетчики попаданий, промахов и вытеснений.
+ * @version 0.013
+ * @author habatoo
+ *
+ * @param <K> - тип ключа.
+ * @param <V> - тип значения, null не кэшируется.
+ */
+public class ExpiringCache<K, V> {
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize - максимальное количество записей.
+     * @param ttlMs - время жизни записи, мс.
+     */
+    public ExpiringCache(int maxSize, long ttlMs) {
+        if (maxSize <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("Cache size and ttl must be positive.");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Возвращает значение по ключу либо null, если записи нет или она просрочена.
+     * @param key - ключ.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Возвращает значение из кэша, при промахе вычисляет его через loader и кэширует.
+     * @param key - ключ.
+     * @param loader - функция загрузки значения, может вернуть null.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        store(key, value, ttlNanos);
+    }
+
+    /**
+     * Записывает значение с индивидуальным сроком жизни, но не дольше ttl кэша.
+     * @param key - ключ.
+     * @param value - значение.
+     * @param ttlMs - время жизни записи, мс.
+     */
+    public void put(K key, V value, long ttlMs) {
+        long nanos = Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(ttlMs));
+        if (nanos > 0) {
+            store(key, value, nanos);
+        } else {
+            invalidate(key);
+        }
+    }
+
+    private void store(K key, V value, long nanos) {
+        if (value == null) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + nanos));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Освобождает место под новую запись: удаляет просроченные записи,
+     * а если их недостаточно - произвольные до уровня maxSize - 1.
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+        for (Iterator<K> it = entries.keySet().iterator(); it.hasNext() && entries.size() >= maxSize; ) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -1,74 +1,303 @@
 package com.homekeeper.config;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
 import com.homekeeper.exceptions.IllegalMoneyFormatException;
 
 import java.math.BigDecimal;
 import java.util.Currency;
 
-public class Money {
+/**
+ * Денежная сумма в минимальных единицах валюты (копейках, центах) типа long.
+ * Количество знаков после точки определяется валютой (Currency.getDefaultFractionDigits).
+ * Сумма неизменяема, арифметика выполняется над long с проверкой переполнения,
+ * дробная часть сверх точности валюты отбрасывается.
+ * В json записывается строкой "35.50", в БД - numeric(19,2) через MoneyConverter.
+ * @version 0.013
+ * @author habatoo
+ */
+public final class Money implements Comparable<Money> {
     private static final Currency CURRENCY = Currency.getInstance("RUB");
-    private BigDecimal value;
-    private Currency currency;
-    private int precision;
+
+    private final long minorUnits;
+    private final Currency currency;
+    private final int precision;
+
+    private Money(long minorUnits, Currency currency, int precision) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+        this.precision = precision;
+    }
 
     public Money(String strValue, Currency currency) throws IllegalMoneyFormatException{
         this.currency = currency;
-        this.precision = currency.getDefaultFractionDigits();
-        if (isNumeric(strValue)) {
-            this.value = new BigDecimal(strValue);
-            if(value.compareTo(new BigDecimal(0)) < 0) {
-                throw new IllegalMoneyFormatException("Данные '" + strValue + "' содержат отрицательные значения.", strValue);
-            }
-        } else {
-            throw new IllegalMoneyFormatException("Данные '" + strValue + "' содержат не числовые значения, \n либо разделитель чисел не точка!", strValue);
-        }
+        this.precision = precisionOf(currency);
+        this.minorUnits = MoneyParser.parseMinorUnits(strValue, precision);
     }
 
+    @JsonCreator
     public Money(String strValue) throws IllegalMoneyFormatException{
         this(strValue, CURRENCY);
     }
 
+    /**
+     * @param minorUnits - сумма в минимальных единицах валюты, например 3550 для 35.50 RUB.
+     * @param currency - валюта.
+     */
+    public static Money ofMinorUnits(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency, precisionOf(currency));
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return ofMinorUnits(minorUnits, CURRENCY);
+    }
+
+    /**
+     * Разбирает сумму из части строки без копирования.
+     * @see MoneyParser
+     */
+    public static Money parse(CharSequence text, int start, int end, Currency currency)
+            throws IllegalMoneyFormatException {
+        int precision = precisionOf(currency);
+        return new Money(MoneyParser.parseMinorUnits(text, start, end, precision), currency, precision);
+    }
+
+    /**
+     * @param value - сумма, знаки сверх точности валюты отбрасываются.
+     * @param currency - валюта.
+     */
+    public static Money of(BigDecimal value, Currency currency) {
+        int precision = precisionOf(currency);
+        return new Money(value.movePointRight(precision).setScale(0, BigDecimal.ROUND_DOWN).longValueExact(),
+                currency, precision);
+    }
+
+    public static Money of(BigDecimal value) {
+        return of(value, CURRENCY);
+    }
+
     public BigDecimal getValue() {
-        return value.setScale(this.precision, BigDecimal.ROUND_DOWN);
+        return BigDecimal.valueOf(minorUnits, precision);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
     }
 
     public Currency getCurrency() {
         return currency;
     }
 
-    private boolean isNumeric(String strNum) {
-        return strNum.matches("-?\\d+(\\.\\d+)?");
+    public Money add(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency, precision);
+    }
+
+    public Money subtract(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency, precision);
     }
 
-    public Money multiplyByInt(int intValue) throws IllegalMoneyFormatException {
-        Money newValue = new Money (String.valueOf(intValue));
-        newValue.value = this.value.setScale(this.precision, BigDecimal.ROUND_DOWN).multiply(newValue.value.setScale(this.precision, BigDecimal.ROUND_DOWN));
-        newValue.value = newValue.value.setScale(this.precision, BigDecimal.ROUND_DOWN);
-        return newValue;
+    public Money multiplyByInt(int intValue) {
+        return new Money(Math.multiplyExact(minorUnits, (long) intValue), currency, precision);
     }
 
-    public Money divideByInt(int intValue) throws IllegalMoneyFormatException {
-        Money newValue = new Money (String.valueOf(intValue));
-        newValue.value = this.value.setScale(this.precision, BigDecimal.ROUND_DOWN).divide(newValue.value.setScale(this.precision, BigDecimal.ROUND_DOWN));
-        newValue.value = newValue.value.setScale(this.precision, BigDecimal.ROUND_DOWN);
-        return newValue;
+    /**
+     * Деление на целое число, остаток в минимальных единицах отбрасывается.
+     */
+    public Money divideByInt(int intValue) {
+        return new Money(minorUnits / intValue, currency, precision);
+    }
+
+    /**
+     * Делит сумму на parts равных частей. Остаток в минимальных единицах распределяется
+     * по одной единице на первые части, сумма частей точно равна исходной сумме.
+     * Например, 100.00 на 3 части - 33.34, 33.33, 33.33.
+     * @param parts - количество частей, больше нуля.
+     */
+    public Money[] allocate(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("Parts must be positive: " + parts);
+        }
+        long share = minorUnits / parts;
+        long remainder = minorUnits % parts;
+        long step = remainder < 0 ? -1 : 1;
+        Money[] result = new Money[parts];
+        for (int i = 0; i < parts; i++) {
+            result[i] = new Money(i < Math.abs(remainder) ? share + step : share, currency, precision);
+        }
+        return result;
+    }
+
+    /**
+     * Делит сумму пропорционально весам методом наибольшего остатка:
+     * каждая часть округляется вниз, оставшиеся минимальные единицы получают части
+     * с наибольшими дробными остатками (при равенстве - первые по порядку).
+     * Сумма частей точно равна исходной сумме.
+     * @param weights - неотрицательные веса, хотя бы один больше нуля.
+     */
+    public Money[] allocate(int... weights) {
+        long[] parts = new long[weights.length];
+        allocateMinorUnits(minorUnits, weights, parts);
+        Money[] result = new Money[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = new Money(parts[i], currency, precision);
+        }
+        return result;
+    }
+
+    /**
+     * Вариант allocate над минимальными единицами без создания объектов Money,
+     * для пакетной обработки: результат записывается в массив parts.
+     * Время линейно от количества частей.
+     * @param minorUnits - сумма в минимальных единицах.
+     * @param weights - неотрицательные веса, хотя бы один больше нуля.
+     * @param parts - массив результата длиной weights.length.
+     */
+    public static void allocateMinorUnits(long minorUnits, int[] weights, long[] parts) {
+        if (weights.length == 0 || parts.length != weights.length) {
+            throw new IllegalArgumentException("Weights must be non-empty and match parts length.");
+        }
+        long totalWeight = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative: " + weight);
+            }
+            totalWeight += weight;
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("At least one weight must be positive.");
+        }
+
+        long step = minorUnits < 0 ? -1 : 1;
+        long quotient = minorUnits / totalWeight;
+        long remainder = Math.abs(minorUnits % totalWeight);
+        long[] fractions = new long[weights.length];
+        long allocated = 0;
+        for (int i = 0; i < weights.length; i++) {
+            long fraction = Math.multiplyExact(remainder, (long) weights[i]);
+            parts[i] = Math.multiplyExact(quotient, (long) weights[i]) + step * (fraction / totalWeight);
+            fractions[i] = fraction % totalWeight;
+            allocated += parts[i];
+        }
+
+        // Остаток меньше количества частей, раздаем по единице частям с дробным остатком выше порога
+        // и первым по порядку частям с остатком, равным порогу
+        long left = Math.abs(minorUnits - allocated);
+        if (left == 0) {
+            return;
+        }
+        long threshold = largest(fractions.clone(), (int) left);
+        long above = 0;
+        for (long fraction : fractions) {
+            if (fraction > threshold) {
+                above++;
+            }
+        }
+        long atThreshold = left - above;
+        for (int i = 0; i < fractions.length; i++) {
+            if (fractions[i] > threshold || (fractions[i] == threshold && atThreshold-- > 0)) {
+                parts[i] += step;
+            }
+        }
+    }
+
+    /**
+     * k-й по величине элемент массива (быстрый выбор Хоара), массив переставляется.
+     * @param values - значения.
+     * @param k - номер элемента по убыванию, от 1 до values.length.
+     */
+    private static long largest(long[] values, int k) {
+        int target = k - 1;
+        int low = 0;
+        int high = values.length - 1;
+        while (low < high) {
+            long pivot = values[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (values[i] > pivot) {
+                    i++;
+                }
+                while (values[j] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long swap = values[i];
+                    values[i++] = values[j];
+                    values[j--] = swap;
+                }
+            }
+            if (target <= j) {
+                high = j;
+            } else if (target >= i) {
+                low = i;
+            } else {
+                return values[target];
+            }
+        }
+        return values[target];
     }
 
     public Money addMoney(String moneyValue) throws IllegalMoneyFormatException {
-        Money newValue = new Money (String.valueOf(moneyValue));
-        newValue.value = value.setScale(precision, BigDecimal.ROUND_DOWN).add(newValue.value.setScale(newValue.precision, BigDecimal.ROUND_DOWN));
-        return newValue;
+        return add(new Money(moneyValue, currency));
     }
 
     public Money subtractMoney(String moneyValue) throws IllegalMoneyFormatException {
-        Money newValue = new Money (String.valueOf(moneyValue));
-        newValue.value = value.setScale(precision, BigDecimal.ROUND_DOWN).subtract(newValue.value.setScale(newValue.precision, BigDecimal.ROUND_DOWN));
-        return newValue;
+        return subtract(new Money(moneyValue, currency));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @JsonValue
+    public String toPlainString() {
+        return getValue().toPlainString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
     }
 
     @Override
     public String toString() {
-        return this.value.toString() + " " + this.currency.toString();
+        return toPlainString() + " " + this.currency.toString();
     }
 
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    /**
+     * Точность валюты, для валют без дробных единиц (getDefaultFractionDigits = -1) - 0.
+     */
+    static int precisionOf(Currency currency) {
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
 }
@@ -0,0 +1,116 @@
+package com.homekeeper.config;
+
+import com.homekeeper.exceptions.IllegalMoneyFormatException;
+
+/**
+ * Разбор десятичной строки вида 123 или 123.45 в минимальные единицы валюты за один проход,
+ * без регулярных выражений и промежуточного BigDecimal.
+ * Принимает CharSequence и диапазон символов, поэтому сумму можно разобрать прямо из буфера запроса.
+ * Знаки сверх точности валюты проверяются, но отбрасываются.
+ * @version 0.013
+ * @author habatoo
+ */
+public final class MoneyParser {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private MoneyParser() {
+    }
+
+    public static long parseMinorUnits(CharSequence text, int precision) throws IllegalMoneyFormatException {
+        if (text == null) {
+            throw notNumeric("null");
+        }
+        return parseMinorUnits(text, 0, text.length(), precision);
+    }
+
+    /**
+     * @param text - строка с суммой.
+     * @param start - индекс первого символа суммы.
+     * @param end - индекс после последнего символа суммы.
+     * @param precision - количество знаков после точки в валюте.
+     * @return сумма в минимальных единицах валюты.
+     * @throws IllegalMoneyFormatException - если сумма не число, разделитель не точка,
+     * сумма отрицательная или не помещается в long.
+     */
+    public static long parseMinorUnits(CharSequence text, int start, int end, int precision)
+            throws IllegalMoneyFormatException {
+        if (precision < 0 || precision >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported currency precision: " + precision);
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && text.charAt(i) == '-') {
+            negative = true;
+            i++;
+        }
+
+        long units = 0;
+        boolean overflow = false;
+        int integerStart = i;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            if (!overflow) {
+                long next = units * 10 + digit;
+                overflow = units > Long.MAX_VALUE / 10 || next < 0;
+                units = next;
+            }
+        }
+        if (i == integerStart) {
+            throw notNumeric(text, start, end);
+        }
+
+        int fractionDigits = 0;
+        if (i < end) {
+            if (text.charAt(i) != '.') {
+                throw notNumeric(text, start, end);
+            }
+            i++;
+            int fractionStart = i;
+            for (; i < end; i++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw notNumeric(text, start, end);
+                }
+                if (fractionDigits < precision) {
+                    if (!overflow) {
+                        long next = units * 10 + digit;
+                        overflow = units > Long.MAX_VALUE / 10 || next < 0;
+                        units = next;
+                    }
+                    fractionDigits++;
+                }
+            }
+            if (i == fractionStart) {
+                throw notNumeric(text, start, end);
+            }
+        }
+
+        if (negative && (units != 0 || overflow)) {
+            String strValue = text.subSequence(start, end).toString();
+            throw new IllegalMoneyFormatException("Данные '" + strValue + "' содержат отрицательные значения.", strValue);
+        }
+        if (!overflow) {
+            long scale = POWERS_OF_TEN[precision - fractionDigits];
+            overflow = units > Long.MAX_VALUE / scale;
+            units *= scale;
+        }
+        if (overflow) {
+            String strValue = text.subSequence(start, end).toString();
+            throw new IllegalMoneyFormatException("Данные '" + strValue + "' превышают допустимое значение.", strValue);
+        }
+        return units;
+    }
+
+    private static IllegalMoneyFormatException notNumeric(CharSequence text, int start, int end) {
+        return notNumeric(text.subSequence(start, end).toString());
+    }
+
+    private static IllegalMoneyFormatException notNumeric(String strValue) {
+        return new IllegalMoneyFormatException("Данные '" + strValue + "' содержат не числовые значения, \n либо разделитель чисел не точка!", strValue);
+    }
+}
@@ -1,6 +1,7 @@
 package com.homekeeper.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,12 +11,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.homekeeper.security.jwt.AuthEntryPointJwt;
 import com.homekeeper.security.jwt.AuthTokenFilter;
+import com.homekeeper.security.services.BCryptStrengthCalibrator;
+import com.homekeeper.security.services.BoundedPasswordEncoder;
+import com.homekeeper.security.services.CalibratedBCryptPasswordEncoder;
 import com.homekeeper.security.services.UserDetailsServiceImpl;
 
 @Configuration
@@ -47,9 +49,33 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
         return super.authenticationManagerBean();
     }
 
+    @Value("${homekeeper.app.hashingThreads:0}")
+    private int hashingThreads;
+
+    @Value("${homekeeper.app.hashingQueueCapacity:100}")
+    private int hashingQueueCapacity;
+
+    @Value("${homekeeper.app.hashingTimeoutMs:5000}")
+    private long hashingTimeoutMs;
+
+    @Value("${homekeeper.app.hashingStrength:0}")
+    private int hashingStrength;
+
+    @Value("${homekeeper.app.hashingTargetMs:250}")
+    private long hashingTargetMs;
+
+    /**
+     * BCrypt выполняется на отдельном ограниченном пуле потоков, а не в потоках обработки запросов.
+     * Стоимость BCrypt задается hashingStrength, при 0 - подбирается при старте под hashingTargetMs.
+     * Хеши с другой стоимостью перехешируются при логине.
+     * @see BoundedPasswordEncoder
+     * @see BCryptStrengthCalibrator
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = hashingStrength > 0 ? hashingStrength : BCryptStrengthCalibrator.calibrate(hashingTargetMs);
+        return new BoundedPasswordEncoder(new CalibratedBCryptPasswordEncoder(strength),
+                hashingThreads, hashingQueueCapacity, hashingTimeoutMs);
     }
 
     @Override
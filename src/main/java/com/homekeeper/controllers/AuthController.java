@@ -1,6 +1,5 @@
 package com.homekeeper.controllers;
 
-import com.homekeeper.models.Token;
 import com.homekeeper.models.User;
 import com.homekeeper.payload.request.LoginRequest;
 import com.homekeeper.payload.request.PasswordRequest;
@@ -9,7 +8,11 @@ import com.homekeeper.payload.response.MessageResponse;
 import com.homekeeper.payload.response.PasswordResponse;
 import com.homekeeper.repository.TokenRepository;
 import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.jwt.TokenDigest;
+import com.homekeeper.security.jwt.TokenStatusCache;
 import com.homekeeper.security.jwt.TokenUtils;
+import com.homekeeper.security.jwt.UserVersionCache;
+import com.homekeeper.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -39,6 +42,15 @@ public class AuthController {
     @Autowired
     TokenUtils tokenUtils;
 
+    @Autowired
+    TokenStatusCache tokenStatusCache;
+
+    @Autowired
+    UserVersionCache userVersionCache;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
     @Autowired
     PasswordEncoder encoder;
 
@@ -57,8 +69,7 @@ public class AuthController {
      */
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        JwtResponse jwtResponse = tokenUtils.makeAuth(loginRequest.getUserName(),  loginRequest.getPassword());
-        tokenUtils.makeToken(loginRequest.getUserName(), jwtResponse.getAccessToken());
+        JwtResponse jwtResponse = tokenUtils.login(loginRequest.getUserName(), loginRequest.getPassword());
 
         return ResponseEntity.ok(jwtResponse);
     }
@@ -76,9 +87,8 @@ public class AuthController {
         String headerAuth = request.getHeader("Authorization");
         String jwt = headerAuth.substring(7, headerAuth.length());
 
-        Token unActiveToken = tokenRepository.findByToken(jwt);
-        unActiveToken.setActive(false);
-        tokenRepository.save(unActiveToken);
+        tokenRepository.deactivateByTokenHash(TokenDigest.sha256(jwt));
+        tokenStatusCache.revoke(jwt);
 
         return ResponseEntity
                 .badRequest()
@@ -111,7 +121,10 @@ public class AuthController {
 
         User user = userRepository.findByUserName(passwordRequest.getUserName()).get();
         user.setPassword(encoder.encode(passwordRequest.getPassword()));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        userVersionCache.invalidate(user.getId());
+        userDetailsService.evict(user.getUserName());
 
         return ResponseEntity.ok(new PasswordResponse(
                 passwordRequest.getUserName(),
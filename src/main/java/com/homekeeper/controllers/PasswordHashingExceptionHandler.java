@@ -0,0 +1,29 @@
+package com.homekeeper.controllers;
+
+import com.homekeeper.exceptions.PasswordHashingRejectedException;
+import com.homekeeper.payload.response.MessageResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Ответ 503 при переполненном пуле хеширования паролей.
+ * Обрабатывает и отказ, завернутый Spring Security в InternalAuthenticationServiceException
+ * (хеширование для несуществующего пользователя при логине): обработчик подбирается по причине исключения.
+ * Ответ пишется сразу, без sendError, поэтому не превращается в 401 при переходе на страницу ошибки.
+ * @see com.homekeeper.security.services.BoundedPasswordEncoder
+ * @version 0.013
+ * @author habatoo
+ */
+@RestControllerAdvice
+public class PasswordHashingExceptionHandler {
+    public static final String MESSAGE = "Error: Password hashing is overloaded, try again later!";
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<MessageResponse> hashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new MessageResponse(MESSAGE));
+    }
+}
@@ -1,21 +1,22 @@
 package com.homekeeper.controllers;
 
 import com.homekeeper.config.Money;
-import com.homekeeper.models.User;
+import com.homekeeper.exceptions.InvalidCursorException;
+import com.homekeeper.models.CurrentBalance;
 import com.homekeeper.models.UserBalance;
+import com.homekeeper.payload.request.BulkDepositRequest;
 import com.homekeeper.payload.request.UserBalanceRequest;
 import com.homekeeper.payload.response.MessageResponse;
 import com.homekeeper.payload.response.UserBalanceResponse;
-import com.homekeeper.repository.UserBalanceRepository;
-import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.services.CurrentUser;
+import com.homekeeper.services.BalanceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.time.LocalDateTime;
+import java.util.Optional;
 
 /**
  * Контроллер работы с балансом платежей пользователя.
@@ -28,30 +29,24 @@ import java.time.LocalDateTime;
 @RequestMapping("/api/auth/balances")
 public class UserBalanceController {
 
-    private final UserBalanceRepository userBalanceRepository;
-
-    private final UserRepository userRepository;
+    private final BalanceService balanceService;
 
     @Autowired
-    public UserBalanceController(UserRepository userRepository, UserBalanceRepository userBalanceRepository
-    ) {
-        this.userRepository = userRepository;
-        this.userBalanceRepository = userBalanceRepository;
+    public UserBalanceController(BalanceService balanceService) {
+        this.balanceService = balanceService;
     }
 
     /**
      * Занесение данных по внесенным средствам в баланс
      * @param userBalanceRequest - сумма добавляемая к балансу пользователя
-     * @param authentication - данные текущего ползователя
+     * @param userId - id текущего пользователя
      * @return - при отсутствии username в базе - "User not found!"
      * @return - при успешной записи суммы в базу - "Balance added successfully!"
      */
     @PostMapping("/addFundsToBalance")
     ResponseEntity<?> addFundsToBalance(
             @Valid @RequestBody UserBalanceRequest userBalanceRequest,
-            Authentication authentication) {
-
-        String userBalanceOldSum;
+            @CurrentUser Long userId) {
 
         if(userBalanceRequest.equals(null)) {
             return ResponseEntity
@@ -59,40 +54,35 @@ public class UserBalanceController {
                     .body(new MessageResponse("Error: Empty request!"));
         }
 
-        User user = userRepository.findByUserName(authentication.getName()).get();
-        if (user.equals(null)) {
+        if (userId == null) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("User not found!"));
         }
 
-        try {
-            UserBalance userBalanceOld = userBalanceRepository.findFirstByUserOrderByBalanceDateDesc(user).get();
-            userBalanceOldSum = userBalanceOld.getBalanceSumOfBalance();
-        } catch (Exception e) {
-            userBalanceOldSum = "0";
-        }
-
-        // Create new balance data
-        Money userBalanceOldSumMoney = new Money(userBalanceOldSum);
-        UserBalance userBalance = new UserBalance(
-                userBalanceOldSumMoney.addMoney(userBalanceRequest.getBalanceSumOfBalance()).getValue().toString()
-        );
-
-        userBalance.setUser(user);
-        userBalance.setBalanceDate(LocalDateTime.now());
-
-        userBalanceRepository.save(userBalance);
+        balanceService.deposit(userId, new Money(userBalanceRequest.getBalanceSumOfBalance()));
 
         return ResponseEntity.ok(new MessageResponse("Balance added successfully!"
         ));
     }
 
     /**
-     * Редактирование существующего баланса
-     * Допускается редактировать только последнее значение баланса
+     * Пакетное пополнение балансов нескольких пользователей, например при сборе платы за месяц
+     * @param bulkDepositRequest - список пар имя пользователя и сумма пополнения
+     * @return - json с результатом по каждой позиции в порядке запроса:
+     * id записи и баланс после пополнения либо "User not found!" или ошибка формата суммы
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> addFundsToBalances(@Valid @RequestBody BulkDepositRequest bulkDepositRequest) {
+        return ResponseEntity.ok(balanceService.depositAll(bulkDepositRequest.getDeposits()));
+    }
+
+    /**
+     * Корректировка баланса
+     * Добавляет запись с разницей между новым и текущим балансом, прежние записи не изменяются
      * @param userBalanceRequest - измененная сумма баланса
-     * @param authentication - данные текущего ползователя
+     * @param userId - id текущего пользователя
      * @return - при пустом запросе - "Error: Empty request!"
      * @return - при отсутствии username в базе - "User not found!"
      * @return - при успешной записи суммы в базу - "Balance data change successful!"
@@ -100,86 +90,109 @@ public class UserBalanceController {
      */
     @PutMapping("/changeBalance")
     public ResponseEntity<?> changeBalance(@Valid @RequestBody UserBalanceRequest userBalanceRequest,
-                                           Authentication authentication) {
+                                           @CurrentUser Long userId) {
         if(userBalanceRequest.equals(null)) {
         return ResponseEntity
                 .badRequest()
                 .body(new MessageResponse("Error: Empty request!"));
         }
 
-        User user = userRepository.findByUserName(authentication.getName()).get();
-        if (user.equals(null)) {
+        if (userId == null) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Username not found!"));
         }
 
-        try {
-            UserBalance userBalance = userBalanceRepository.findFirstByUserOrderByBalanceDateDesc(user).get();
-            userBalance.setBalanceSumOfBalance(userBalanceRequest.getBalanceSumOfBalance());
-            userBalanceRepository.save(userBalance);
-
-            return ResponseEntity
-                    .ok()
-                    .body(new MessageResponse("Balance data change successful!"));
-        } catch (Exception e) {
+        UserBalance userBalance = balanceService.correct(userId, new Money(userBalanceRequest.getBalanceSumOfBalance()));
+        if (userBalance == null) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Database is empty!"));
         }
+
+        return ResponseEntity
+                .ok()
+                .body(new MessageResponse("Balance data change successful!"));
     }
 
     /**
      * Получение баланса текущего пользователя
-     * @param authentication
+     * @param userId - id текущего пользователя
      * @return - при отсутствии username в базе - "User not found!"
-     * @return - при успешном запросе выдается json с данными по балансу с самой последней датой
+     * @return - при успешном запросе выдается json с текущим балансом и датой его последнего изменения
      * @return - при запросе в пучтую бд - "Database is empty!"
      */
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @ResponseBody
-    public ResponseEntity<?> showBalance(Authentication authentication) {
-        User user = userRepository.findByUserName(authentication.getName()).get();
-        if (user.equals(null)) {
+    public ResponseEntity<?> showBalance(@CurrentUser Long userId) {
+        if (userId == null) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Username not found!"));
         }
 
-        try {
-            UserBalance userBalance = userBalanceRepository.findFirstByUserOrderByBalanceDateDesc(user).get();
+        Optional<CurrentBalance> currentBalance = balanceService.getCurrent(userId);
+        if (!currentBalance.isPresent() || currentBalance.get().getLastEntryId() == null) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Database is empty!"));
+        }
+
+        CurrentBalance balance = currentBalance.get();
         return ResponseEntity.ok(new UserBalanceResponse(
-                userBalance.getId(),
-                userBalance.getBalanceDate(),
-                userBalance.getBalanceSumOfBalance(),
-                user
+                balance.getLastEntryId(),
+                balance.getUpdatedAt(),
+                balance.getBalance().toPlainString(),
+                null
         ));
-        } catch (Exception e) {
+    }
+
+    /**
+     * История баланса текущего пользователя постранично, от новых записей к старым
+     * @param cursor - nextCursor из предыдущего ответа, без него выдается первая страница
+     * @param size - количество записей на странице, не больше 100
+     * @param userId - id текущего пользователя
+     * @return - json с записями страницы и nextCursor, nextCursor пустой на последней странице
+     * @return - при неверном курсоре - "Invalid cursor!"
+     */
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> showBalanceHistory(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int size,
+                                                @CurrentUser Long userId) {
+        if (userId == null) {
             return ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Database is empty!"));
+                    .body(new MessageResponse("User not found!"));
+        }
+
+        try {
+            return ResponseEntity.ok(balanceService.getHistory(userId, cursor, size));
+        } catch (InvalidCursorException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Invalid cursor!"));
         }
     }
 
     /**
      * Очищение таблицы userBalances
-     * @param authentication
+     * @param userId - id текущего пользователя
      * @return
      */
     @DeleteMapping
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseBody
-    public ResponseEntity<?> clearBalance(Authentication authentication) {
-        User user = userRepository.findByUserName(authentication.getName()).get();
-        if (user.equals(null)) {
+    public ResponseEntity<?> clearBalance(@CurrentUser Long userId) {
+        if (userId == null) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Username not found!"));
         }
 
         try {
-            userBalanceRepository.deleteAll();
+            balanceService.clear();
             //System.out.println("UserBalanceController.clearBalance " + userBalanceRepository.findAll());
             return ResponseEntity.ok(new MessageResponse("Balance table was cleared!"));
         } catch (Exception e) {
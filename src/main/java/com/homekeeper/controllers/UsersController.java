@@ -1,27 +1,46 @@
 package com.homekeeper.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.homekeeper.models.ERoles;
 import com.homekeeper.models.Role;
-import com.homekeeper.models.Token;
 import com.homekeeper.models.User;
 import com.homekeeper.payload.request.SignupRequest;
 import com.homekeeper.payload.response.MessageResponse;
-import com.homekeeper.payload.response.UserResponse;
 import com.homekeeper.repository.RoleRepository;
 import com.homekeeper.repository.TokenRepository;
 import com.homekeeper.repository.UserBalanceRepository;
 import com.homekeeper.repository.UserRepository;
 import com.homekeeper.security.jwt.UserUtils;
+import com.homekeeper.security.jwt.UserVersionCache;
+import com.homekeeper.security.services.BoundedPasswordEncoder;
+import com.homekeeper.security.services.CurrentUser;
+import com.homekeeper.security.services.UserDetailsServiceImpl;
+import com.homekeeper.services.BalanceExportService;
+import com.homekeeper.services.BalanceService;
+import com.homekeeper.services.TokenPurgeService;
+import com.homekeeper.services.UserImportService;
+import com.homekeeper.services.UserInfoJsonWriter;
+import com.homekeeper.services.UserListService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -39,6 +58,9 @@ public class UsersController {
     @Value("${homekeeper.app.remoteAddr}")
     private String remoteAddr;
 
+    @Value("${homekeeper.app.importMaxRows:1000}")
+    private int importMaxRows;
+
     private final UserRepository userRepository;
     private final TokenRepository tokenRepository;
     private final UserBalanceRepository userBalanceRepository;
@@ -61,52 +83,107 @@ public class UsersController {
     @Autowired
     UserUtils userUtils;
 
+    @Autowired
+    UserVersionCache userVersionCache;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    TokenPurgeService tokenPurgeService;
+
+    @Autowired
+    BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    BalanceService balanceService;
+
+    @Autowired
+    BalanceExportService balanceExportService;
+
+    @Autowired
+    UserListService userListService;
+
+    @Autowired
+    UserInfoJsonWriter userInfoJsonWriter;
+
+    @Autowired
+    UserImportService userImportService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     /**
-     * @method userList - при http GET запросе по адресу .../api/auth/users
-     * @return {@code List<user>} - список всех пользователей с полными данными пользователей.
-     * @see User
-     * @see Role
-     * @see com.homekeeper.models.UserBalance
+     * @method userList - при http GET запросе по адресу .../api/auth/users?page=0&size=20&sort=userName,asc
+     * @param pageable - номер страницы, размер страницы (не больше 100) и сортировка
+     * по id, userName, userEmail или creationDate.
+     * @param includeBalance - добавить текущий баланс пользователей.
+     * @return {@code PageResponse<UserSummaryResponse>} - страница пользователей с ролями и,
+     * по запросу, текущим балансом.
+     * @return {@code ResponseEntity.badRequest - Error: Unsupported sort property!} - при сортировке по другому полю.
+     * @see UserListService
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseBody
-    public ResponseEntity<?> userList() {
-        List<Object> usersReturn = new ArrayList<>();
-        List<User> usersCurrent = userRepository.findAll();
-        for(User user: usersCurrent) {
-            Map<String, Object> temp = new HashMap<String, Object>();
-            temp.put("balances", user.getBalances());
-            temp.put("roles", user.getRoles());
-            temp.put("creationDate", user.getCreationDate());
-            temp.put("userEmail", user.getUserEmail());
-            temp.put("userName", user.getUserName());
-            temp.put("id", user.getId());
-            usersReturn.add(temp);
+    public ResponseEntity<?> userList(@PageableDefault(size = 20, sort = "id") Pageable pageable,
+                                      @RequestParam(defaultValue = "false") boolean includeBalance) {
+        try {
+            return ResponseEntity.ok(userListService.listUsers(pageable, includeBalance));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Unsupported sort property!"));
+        }
+    }
+
+    /**
+     * @method exportBalances - при http GET запросе по адресу .../api/auth/users/export?format=csv|ndjson
+     * @param format - формат выгрузки, csv по умолчанию.
+     * @return {@code StreamingResponseBody} - файл со всеми пользователями и записями их балансов,
+     * строки записываются в ответ по мере чтения из БД.
+     * @throws ResponseStatusException - 400 Error: Unknown export format! при неизвестном формате.
+     * @see BalanceExportService
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBalances(@RequestParam(defaultValue = "csv") String format) {
+        BalanceExportService.Format exportFormat;
+        try {
+            exportFormat = BalanceExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error: Unknown export format!");
         }
 
-        return ResponseEntity.ok(usersReturn);
+        StreamingResponseBody body = out -> balanceExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"balances." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     /**
      * @method getUserInfo - при http GET запросе по адресу .../api/auth/users/getUserInfo
-     * @param authentication - данные по текущему аутентифицированному пользователю
-     * возвращает данные
-     * @return {@code userRepository} - полные данные пользователя - user.userName, user.balance, user.roles
-     * @see UserRepository
+     * @param userId - id текущего аутентифицированного пользователя
+     * возвращает данные, json пишется в ответ по мере чтения истории баланса из БД
+     * @return полные данные пользователя - userName, userEmail, creationDate, roles, balances
+     * @return {@code unauthorized - Error: Unauthorized!} - если текущий пользователь не определен
+     * @return {@code notFound - User not found!} - если пользователь не найден
+     * @see UserInfoJsonWriter
      */
     @GetMapping("/getUserInfo")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @ResponseBody
-    public ResponseEntity<?>  getUserInfo(Authentication authentication) {
-        User user = userRepository.findByUserName(authentication.getName()).get();
-        return ResponseEntity.ok(new UserResponse(
-                user.getUserName(),
-                user.getUserEmail(),
-                user.getCreationDate(),
-                user.getRoles(),
-                user.getBalances()
-        ));
+    public void getUserInfo(@CurrentUser Long userId, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (userId == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            objectMapper.writeValue(response.getOutputStream(), new MessageResponse("Error: Unauthorized!"));
+        } else if (!userInfoJsonWriter.write(userId, response.getOutputStream())) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            objectMapper.writeValue(response.getOutputStream(), new MessageResponse("User not found!"));
+        }
     }
 
     /**
@@ -180,51 +257,111 @@ public class UsersController {
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
 
+    /**
+     * @method importUsers - при http POST запросе по адресу .../api/auth/users/import
+     * @param rows - json массив пользователей в формате addUser.
+     * @return {@code List<UserImportResultResponse>} - результат по каждой строке: id созданного
+     * пользователя и "User registered successfully!" либо причина ошибки, ошибочные строки пропускаются.
+     * @return {@code ResponseEntity.badRequest - Error: Too many rows!} - если строк больше importMaxRows.
+     * @return {@code ResponseEntity.badRequest - Error: Username or email is already in use!} - если имя
+     * или email заняли во время импорта, в этом случае ни один пользователь не создается.
+     * @see UserImportService
+     * метод доступен только для пользователей с ролью ADMIN
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importUsers(@RequestBody List<SignupRequest> rows) {
+        if (rows.size() > importMaxRows) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Too many rows!"));
+        }
+        try {
+            return ResponseEntity.ok(userImportService.importUsers(rows));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Username or email is already in use!"));
+        }
+    }
+
+    /**
+     * @method importUsersCsv - при http POST запросе по адресу .../api/auth/users/import с Content-Type text/csv
+     * @param csv - строки userName,email,password,role с заголовком, роли разделяются ';'.
+     * @return то же, что importUsers, при неверном заголовке - "Error: Invalid CSV header!".
+     * @see UserImportService#parseCsv(String)
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importUsersCsv(@RequestBody String csv) {
+        List<SignupRequest> rows;
+        try {
+            rows = UserImportService.parseCsv(csv);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Invalid CSV header!"));
+        }
+        return importUsers(rows);
+    }
+
     /**
      * @method changeUser - при http PUT запросе по адресу .../api/auth/users/{id}
      * {id} - входные данные - id пользователя, данные которого редактируются, id не редактируетс
      * возвращает данные
      * @return - измененные данные пользовалеля, id изменению не подлежит.
-     * @param userFromDb - данные пользователя отредактированные из формы
-     * @param user - текущие данные пользователя
+     * @param id - id редактируемого пользователя, свои данные берутся из currentUser без повторной загрузки
+     * @param user - новые данные пользователя из формы
+     * @param currentUser - текущий аутентифицированный пользователь с ролями
+     * @return {@code 401 - Error: Unauthorized!} - если текущий пользователь не найден
+     * @return {@code 404 - User not found!} - если редактируемый пользователь не найден
      * @see UserRepository
      */
     @PutMapping("{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<?> changeUser(
-            @PathVariable("id") User userFromDb,
+            @PathVariable("id") Long id,
             @RequestBody User user,
-            Authentication authentication) {
+            @CurrentUser User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Error: Unauthorized!"));
+        }
 
-        userFromDb = userRepository.findById(userFromDb.getId()).get();
         // check ID current user = ID edit user
-        if(!(userFromDb.getId() == userRepository.findByUserName(authentication.getName()).get().getId())) {
-            // admin check
-            if(userRepository.findByUserName(authentication.getName()).get().getRoles().size() == 2) {
-                //BeanUtils.copyProperties(user, userRepository.findById(userFromDb.getId()).get(), "id");
-                return userUtils.checkUserNameAndEmail(user, userFromDb);
-                }
+        if (id.equals(currentUser.getId())) {
+            // текущий пользователь уже загружен резолвером @CurrentUser
+            return userUtils.checkUserNameAndEmail(user, currentUser);
+        }
+        // admin check
+        if (currentUser.getRoles().size() != 2) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("You can edit only yourself data."));
-        } else {
-            //BeanUtils.copyProperties(user, userRepository.findById(userFromDb.getId()).get(), "id");
-            return userUtils.checkUserNameAndEmail(user, userFromDb);
         }
-
+        Optional<User> userFromDb = userRepository.findById(id);
+        if (!userFromDb.isPresent()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("User not found!"));
+        }
+        return userUtils.checkUserNameAndEmail(user, userFromDb.get());
     }
 
     /**
      * @method deleteUser - при http DELETE запросе по адресу .../api/auth/users/{id}
      * {id} - входные данные - id пользователя, данные которого удаляются.
-     * @param user - обьект пользователя для удаления.
-     * @see UserRepository
+     * @param user - обьект пользователя для удаления, удаляется вместе с текущим балансом.
+     * @see BalanceService
      */
     @DeleteMapping("{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?>  deleteUser(@PathVariable("id") User user) {
         try {
-            userRepository.delete(user);
+            balanceService.deleteUser(user);
+            userVersionCache.invalidate(user.getId());
+            userDetailsService.evict(user.getUserName());
             return ResponseEntity.ok(new MessageResponse("User was deleted successfully!"));
         } catch (Exception e) {
             return ResponseEntity
@@ -234,38 +371,53 @@ public class UsersController {
     }
 
     /**
-     * @method clearTokens - при http DELETE запросе по адресу .../api/auth/users/tokens - очищает базу от токенов с истекшим сроком
-     * @return {@code ResponseEntity.badRequest - All tokens have valid expiry date!} - если все токены имеют не истекший срок действия.
+     * @method clearTokens - при http DELETE запросе по адресу .../api/auth/users/tokens - запускает фоновую очистку базы
+     * от токенов с истекшим сроком и отозванных токенов, не дожидаясь ее окончания
+     * @return {@code ResponseEntity.badRequest - All tokens have valid expiry date!} - если все токены активны и имеют не истекший срок действия.
      * @return {@code ResponseEntity.badRequest - Error: Can't read token data!} - ошибка при запросе к таблице token.
-     * @return {@code ResponseEntity.ok - Tokens with expiry date was deleted successfully!} - при успешном удалении токенов с истекшим сроком действия.
+     * @return {@code ResponseEntity.accepted - Tokens purge started!} - очистка запущена, ход очистки - GET .../api/auth/users/tokens.
      */
     @DeleteMapping("/tokens")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?>  clearTokens() {
 
         try {
-            List<Token> tokens = tokenRepository.findByExpiryDateBefore(LocalDateTime.now());
-            if(tokens.isEmpty()) {
+            if (!tokenPurgeService.hasTokensToPurge()) {
                 return ResponseEntity
                         .badRequest()
                         .body(new MessageResponse("All tokens have valid expiry date!"));
             }
-            else {
-                for (Token token : tokens) {
-                    try { tokenRepository.deleteById(token.getId()); } catch (Exception e) {
-                        return ResponseEntity
-                                .badRequest()
-                                .body(new MessageResponse("Error: Can't delete token!"));
-                    }
-                }
-                return ResponseEntity.ok(new MessageResponse("Tokens with expiry date was deleted successfully!"));
-            }
-
         } catch (Exception e) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Error: Can't read token data!"));
         }
 
+        tokenPurgeService.trigger();
+        return ResponseEntity
+                .accepted()
+                .body(new MessageResponse("Tokens purge started!"));
+    }
+
+    /**
+     * @method tokensPurgeStatus - при http GET запросе по адресу .../api/auth/users/tokens
+     * @return {@code TokenPurgeResponse} - состояние фоновой очистки токенов: идет ли очистка,
+     * время и результат последнего запуска, общее количество удаленных токенов.
+     */
+    @GetMapping("/tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> tokensPurgeStatus() {
+        return ResponseEntity.ok(tokenPurgeService.getStatus());
+    }
+
+    /**
+     * @method passwordHashingStatus - при http GET запросе по адресу .../api/auth/users/hashing
+     * @return {@code PasswordHashingResponse} - состояние пула хеширования паролей: глубина очереди,
+     * количество отказов, среднее время ожидания и хеширования.
+     */
+    @GetMapping("/hashing")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> passwordHashingStatus() {
+        return ResponseEntity.ok(passwordEncoder.getStatus());
     }
 }
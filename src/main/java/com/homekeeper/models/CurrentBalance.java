@@ -0,0 +1,74 @@
+package com.homekeeper.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.homekeeper.config.Money;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Текущий баланс пользователя. Записывается в БД в таблицу с имененм current_balances,
+ * одна строка на пользователя. Обновляется в одной транзакции с добавлением записи UserBalance,
+ * поэтому баланс читается по primary key без сортировки истории.
+ * @version 0.013
+ * @author habatoo
+ *
+ * @param "userId" - primary key таблицы current_balances, id пользователя.
+ * @param "balance" - текущий баланс.
+ * @param "lastEntryId" - id последней записи UserBalance.
+ * @param "updatedAt" - дата последнего изменения баланса.
+ */
+@Entity
+@Table(name = "current_balances")
+@ToString(of = {"userId", "balance", "lastEntryId", "updatedAt"})
+@EqualsAndHashCode(of = {"userId"})
+public class CurrentBalance {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private Money balance;
+
+    private Long lastEntryId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    public CurrentBalance() {
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public void setLastEntryId(Long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
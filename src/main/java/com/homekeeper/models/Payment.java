@@ -43,22 +43,29 @@ public class Payment {
     private Long id;
 
     private double waterColdValueCurrentMonth;
-    private String waterColdSum;
+    @Column(precision = 19, scale = 2)
+    private Money waterColdSum;
 
     private double waterWarmValueCurrentMonth;
-    private String waterWarmSum;
+    @Column(precision = 19, scale = 2)
+    private Money waterWarmSum;
 
     private double electricityValueCurrentMonth;
-    private String electricitySum;
+    @Column(precision = 19, scale = 2)
+    private Money electricitySum;
 
     private double internetValueCurrentMonth;
-    private String internetSum;
+    @Column(precision = 19, scale = 2)
+    private Money internetSum;
 
     private double waterOutValueCurrentMonth;
-    private String waterOutSum;
+    @Column(precision = 19, scale = 2)
+    private Money waterOutSum;
 
-    private String rentRateSum;
-    private String rentSum;
+    @Column(precision = 19, scale = 2)
+    private Money rentRateSum;
+    @Column(precision = 19, scale = 2)
+    private Money rentSum;
 
     private int homeMates;
 
@@ -92,17 +99,17 @@ public class Payment {
      */
     public Payment(
             double waterColdValueCurrentMonth,
-            String waterColdSum,
+            Money waterColdSum,
             double waterWarmValueCurrentMonth,
-            String waterWarmSum,
+            Money waterWarmSum,
             double electricityValueCurrentMonth,
-            String electricitySum,
+            Money electricitySum,
             double internetValueCurrentMonth,
-            String internetSum,
+            Money internetSum,
             double waterOutValueCurrentMonth,
-            String waterOutSum,
-            String rentRateSum,
-            String rentSum,
+            Money waterOutSum,
+            Money rentRateSum,
+            Money rentSum,
             int homeMates) {
         this.waterColdValueCurrentMonth = waterColdValueCurrentMonth;
         this.waterColdSum = waterColdSum;
@@ -135,11 +142,11 @@ public class Payment {
         this.waterColdValueCurrentMonth = waterColdValueCurrentMonth;
     }
 
-    public String getWaterColdSum() {
+    public Money getWaterColdSum() {
         return waterColdSum;
     }
 
-    public void setWaterColdSum(String waterColdSum) {
+    public void setWaterColdSum(Money waterColdSum) {
         this.waterColdSum = waterColdSum;
     }
 
@@ -151,11 +158,11 @@ public class Payment {
         this.waterWarmValueCurrentMonth = waterWarmValueCurrentMonth;
     }
 
-    public String getWaterWarmSum() {
+    public Money getWaterWarmSum() {
         return waterWarmSum;
     }
 
-    public void setWaterWarmSum(String waterWarmSum) {
+    public void setWaterWarmSum(Money waterWarmSum) {
         this.waterWarmSum = waterWarmSum;
     }
 
@@ -167,11 +174,11 @@ public class Payment {
         this.electricityValueCurrentMonth = electricityValueCurrentMonth;
     }
 
-    public String getElectricitySum() {
+    public Money getElectricitySum() {
         return electricitySum;
     }
 
-    public void setElectricitySum(String electricitySum) {
+    public void setElectricitySum(Money electricitySum) {
         this.electricitySum = electricitySum;
     }
 
@@ -183,11 +190,11 @@ public class Payment {
         this.internetValueCurrentMonth = internetValueCurrentMonth;
     }
 
-    public String getInternetSum() {
+    public Money getInternetSum() {
         return internetSum;
     }
 
-    public void setInternetSum(String internetSum) {
+    public void setInternetSum(Money internetSum) {
         this.internetSum = internetSum;
     }
 
@@ -199,27 +206,27 @@ public class Payment {
         this.waterOutValueCurrentMonth = waterOutValueCurrentMonth;
     }
 
-    public String getWaterOutSum() {
+    public Money getWaterOutSum() {
         return waterOutSum;
     }
 
-    public void setWaterOutSum(String waterOutSum) {
+    public void setWaterOutSum(Money waterOutSum) {
         this.waterOutSum = waterOutSum;
     }
 
-    public String getRentRateSum() {
+    public Money getRentRateSum() {
         return rentRateSum;
     }
 
-    public void setRentRateSum(String rentRateSum) {
+    public void setRentRateSum(Money rentRateSum) {
         this.rentRateSum = rentRateSum;
     }
 
-    public String getRentSum() {
+    public Money getRentSum() {
         return rentSum;
     }
 
-    public void setRentSum(String rentSum) {
+    public void setRentSum(Money rentSum) {
         this.rentSum = rentSum;
     }
 
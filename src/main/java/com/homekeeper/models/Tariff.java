@@ -32,11 +32,16 @@ public class Tariff {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String waterColdRate;
-    private String waterHotRate;
-    private String electricityRate;
-    private String internetRate;
-    private String rentRate;
+    @Column(precision = 19, scale = 2)
+    private Money waterColdRate;
+    @Column(precision = 19, scale = 2)
+    private Money waterHotRate;
+    @Column(precision = 19, scale = 2)
+    private Money electricityRate;
+    @Column(precision = 19, scale = 2)
+    private Money internetRate;
+    @Column(precision = 19, scale = 2)
+    private Money rentRate;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime dateRateChange;
@@ -52,7 +57,7 @@ public class Tariff {
      * @param internetRate тарф на интернет, рублей.копеек.
      * @param rentRate тариф на квартплату, рублей.копеек.
      */
-    public Tariff(String waterColdRate, String waterHotRate, String electricityRate, String internetRate, String rentRate) {
+    public Tariff(Money waterColdRate, Money waterHotRate, Money electricityRate, Money internetRate, Money rentRate) {
         this.waterColdRate = waterColdRate;
         this.waterHotRate = waterHotRate;
         this.electricityRate = electricityRate;
@@ -68,43 +73,43 @@ public class Tariff {
         this.id = id;
     }
 
-    public String getWaterColdRate() {
+    public Money getWaterColdRate() {
         return waterColdRate;
     }
 
-    public void setWaterColdRate(String waterColdRate) {
+    public void setWaterColdRate(Money waterColdRate) {
         this.waterColdRate = waterColdRate;
     }
 
-    public String getWaterHotRate() {
+    public Money getWaterHotRate() {
         return waterHotRate;
     }
 
-    public void setWaterHotRate(String waterHotRate) {
+    public void setWaterHotRate(Money waterHotRate) {
         this.waterHotRate = waterHotRate;
     }
 
-    public String getElectricityRate() {
+    public Money getElectricityRate() {
         return electricityRate;
     }
 
-    public void setElectricityRate(String electricityRate) {
+    public void setElectricityRate(Money electricityRate) {
         this.electricityRate = electricityRate;
     }
 
-    public String getInternetRate() {
+    public Money getInternetRate() {
         return internetRate;
     }
 
-    public void setInternetRate(String internetRate) {
+    public void setInternetRate(Money internetRate) {
         this.internetRate = internetRate;
     }
 
-    public String getRentRate() {
+    public Money getRentRate() {
         return rentRate;
     }
 
-    public void setRentRate(String rentRate) {
+    public void setRentRate(Money rentRate) {
         this.rentRate = rentRate;
     }
 
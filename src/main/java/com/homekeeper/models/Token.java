@@ -2,6 +2,7 @@ package com.homekeeper.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -10,14 +11,15 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 /**
- * Модель токенов пользователей с указанием статуса токена и срока его действия
+ * Модель токенов пользователей с указанием статуса токена и срока его действия.
+ * Сам jwt в БД не хранится - записывается и ищется его SHA-256 отпечаток (32 байта).
  * @version 0.013
  * @author habatoo
  *
  */
 @Entity
-@Table(name = "tokens")
-@ToString(of = {"id", "token", "creationDate", "active"})
+@Table(name = "tokens", indexes = @Index(name = "idx_tokens_expiry_date", columnList = "expiryDate"))
+@ToString(of = {"id", "creationDate", "active"})
 @EqualsAndHashCode(of = {"id"})
 public class Token {
     @Id
@@ -25,8 +27,9 @@ public class Token {
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "token", nullable = false, unique = true, length = 500)
-    private String token;
+    @JsonIgnore
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
 
     @Column(updatable = false)
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
@@ -49,8 +52,12 @@ public class Token {
     public Token() {
     }
 
-    public Token(String token, User user) {
-        this.token = token;
+    /**
+     * @param tokenHash - SHA-256 отпечаток jwt.
+     * @param user - владелец токена.
+     */
+    public Token(byte[] tokenHash, User user) {
+        this.tokenHash = tokenHash;
         this.user = user;
     }
 
@@ -62,12 +69,12 @@ public class Token {
         this.id = id;
     }
 
-    public String getToken() {
-        return token;
+    public byte[] getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(byte[] tokenHash) {
+        this.tokenHash = tokenHash;
     }
 
     public LocalDateTime getCreationDate() {
@@ -2,9 +2,11 @@ package com.homekeeper.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -22,6 +24,8 @@ import java.util.Set;
  * @param "password" - пароль, в БД хранится в виде хешированном виде.
  * @param "userEmail" - email пользователя.
  * @param "creationDate" - дата создания пользователя.
+ * @param "tokenVersion" - версия учетных данных, записывается в jwt. Увеличивается при изменении
+ * пользователя, после чего ранее выданные токены перестают приниматься.
  *
  * @param "roles" - email пользователя, связи через таблицу user-roles
  * @see Role (роли пользователя).
@@ -31,9 +35,15 @@ import java.util.Set;
  *
  *  @param "token" - email пользователя, связи через таблицу user_balances
  *  @see Token (токены пользователя).
+ *
+ * Роли, балансы и токены загружаются лениво. Методы репозитория, которым они нужны,
+ * подгружают их тем же запросом через @EntityGraph.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "uk_users_user_name", columnList = "userName", unique = true),
+        @Index(name = "uk_users_user_email", columnList = "userEmail", unique = true)
+})
 @ToString(of = {"id", "firstName", "lastName", "userEmail", "creationDate"})
 @EqualsAndHashCode(of = {"id"})
 public class User implements Serializable {
@@ -51,6 +61,10 @@ public class User implements Serializable {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime creationDate;
 
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion;
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(	name = "user_roles",
@@ -61,13 +75,13 @@ public class User implements Serializable {
     @JsonIdentityInfo(
             generator = ObjectIdGenerators.PropertyGenerator.class,
             property = "id")
-    @OneToMany(mappedBy = "user", fetch = FetchType.EAGER, orphanRemoval = true)
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, orphanRemoval = true)
     private Set<UserBalance> balances;
 
     @JsonIdentityInfo(
             generator = ObjectIdGenerators.PropertyGenerator.class,
             property = "id")
-    @OneToMany(mappedBy = "user", fetch = FetchType.EAGER, orphanRemoval = true)
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, orphanRemoval = true)
     private Set<Token> tokens;
 
     /**
@@ -128,6 +142,14 @@ public class User implements Serializable {
         this.creationDate = creationDate;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public Set<Role> getRoles() {
         return roles;
     }
@@ -3,8 +3,10 @@ package com.homekeeper.models;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.homekeeper.config.Money;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.Immutable;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -12,29 +14,43 @@ import java.time.LocalDateTime;
 /**
  * Модель с данными платежей пользователя и текущим балансом каждого пользователя.
  * Записывается в БД в таблицу с имененм userBalances.
+ * Записи не изменяются после добавления: пополнение и корректировка баланса добавляют новую запись,
+ * текущий баланс хранится в CurrentBalance.
+ * Id выдаются последовательностью user_balances_seq блоками по 50, чтобы вставки записей
+ * объединялись в пакеты JDBC (hibernate.jdbc.batch_size).
  * @version 0.013
  * @author habatoo
  *
  * @param "id" - primary key таблицы userBalances.
- * @param "balanceDate" - наименовение роли.
- * @param "balanceSumOfBalance" - наименовение роли.
+ * @param "balanceDate" - дата изменения баланса.
+ * @param "amount" - сумма изменения баланса.
+ * @param "balanceSumOfBalance" - баланс после изменения.
+ * @see CurrentBalance (текущий баланс пользователя).
  */
 @Entity
-@Table(name = "userBalances")
+@Immutable
+@Table(name = "userBalances", indexes = @Index(name = "idx_user_balances_user_id_date_id",
+        columnList = "user_id, balanceDate desc, id desc"))
 @ToString(of = {"id",
         "balanceDate",
+        "amount",
         "balanceSumOfBalance"
 })
 @EqualsAndHashCode(of = {"id"})
 public class UserBalance {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_balances_seq")
+    @SequenceGenerator(name = "user_balances_seq", sequenceName = "user_balances_seq", allocationSize = 50)
     private Long id;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime balanceDate;
 
-    private String balanceSumOfBalance;
+    @Column(precision = 19, scale = 2)
+    private Money amount;
+
+    @Column(precision = 19, scale = 2)
+    private Money balanceSumOfBalance;
 
     //@ManyToOne(cascade = CascadeType.REMOVE)
     @ManyToOne
@@ -47,7 +63,8 @@ public class UserBalance {
     public UserBalance() {
     }
 
-    public UserBalance(String balanceSumOfBalance) {
+    public UserBalance(Money amount, Money balanceSumOfBalance) {
+        this.amount = amount;
         this.balanceSumOfBalance = balanceSumOfBalance;
     }
 
@@ -67,12 +84,12 @@ public class UserBalance {
         this.balanceDate = balanceDate;
     }
 
-    public String getBalanceSumOfBalance() {
+    public Money getBalanceSumOfBalance() {
         return balanceSumOfBalance;
     }
 
-    public void setBalanceSumOfBalance(String balanceSumOfBalance) {
-        this.balanceSumOfBalance = balanceSumOfBalance;
+    public Money getAmount() {
+        return amount;
     }
 
     public void setUser(User user) {
@@ -0,0 +1,27 @@
+package com.homekeeper.payload.request;
+
+import javax.validation.constraints.NotBlank;
+
+public class BulkDepositItemRequest {
+    @NotBlank
+    private String userName;
+
+    @NotBlank
+    private String balanceSumOfBalance;
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getBalanceSumOfBalance() {
+        return balanceSumOfBalance;
+    }
+
+    public void setBalanceSumOfBalance(String balanceSumOfBalance) {
+        this.balanceSumOfBalance = balanceSumOfBalance;
+    }
+}
@@ -0,0 +1,23 @@
+package com.homekeeper.payload.request;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BulkDepositRequest {
+    public static final int MAX_DEPOSITS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_DEPOSITS)
+    private List<@NotNull @Valid BulkDepositItemRequest> deposits;
+
+    public List<BulkDepositItemRequest> getDeposits() {
+        return deposits;
+    }
+
+    public void setDeposits(List<BulkDepositItemRequest> deposits) {
+        this.deposits = deposits;
+    }
+}
@@ -0,0 +1,52 @@
+package com.homekeeper.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public class BalanceEntryResponse {
+    private Long id;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime balanceDate;
+    private String amount;
+    private String balanceSumOfBalance;
+
+    public BalanceEntryResponse(Long id, LocalDateTime balanceDate, String amount, String balanceSumOfBalance) {
+        this.id = id;
+        this.balanceDate = balanceDate;
+        this.amount = amount;
+        this.balanceSumOfBalance = balanceSumOfBalance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getBalanceDate() {
+        return balanceDate;
+    }
+
+    public void setBalanceDate(LocalDateTime balanceDate) {
+        this.balanceDate = balanceDate;
+    }
+
+    public String getAmount() {
+        return amount;
+    }
+
+    public void setAmount(String amount) {
+        this.amount = amount;
+    }
+
+    public String getBalanceSumOfBalance() {
+        return balanceSumOfBalance;
+    }
+
+    public void setBalanceSumOfBalance(String balanceSumOfBalance) {
+        this.balanceSumOfBalance = balanceSumOfBalance;
+    }
+}
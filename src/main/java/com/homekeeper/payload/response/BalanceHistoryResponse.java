@@ -0,0 +1,29 @@
+package com.homekeeper.payload.response;
+
+import java.util.List;
+
+public class BalanceHistoryResponse {
+    private List<BalanceEntryResponse> entries;
+    private String nextCursor;
+
+    public BalanceHistoryResponse(List<BalanceEntryResponse> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BalanceEntryResponse> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<BalanceEntryResponse> entries) {
+        this.entries = entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.homekeeper.payload.response;
+
+public class BulkDepositItemResponse {
+    private String userName;
+    private Long id;
+    private String balanceSumOfBalance;
+    private String message;
+
+    public BulkDepositItemResponse(String userName, Long id, String balanceSumOfBalance, String message) {
+        this.userName = userName;
+        this.id = id;
+        this.balanceSumOfBalance = balanceSumOfBalance;
+        this.message = message;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getBalanceSumOfBalance() {
+        return balanceSumOfBalance;
+    }
+
+    public void setBalanceSumOfBalance(String balanceSumOfBalance) {
+        this.balanceSumOfBalance = balanceSumOfBalance;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,56 @@
+package com.homekeeper.payload.response;
+
+public class PasswordHashingResponse {
+    private int poolSize;
+    private int active;
+    private int queueDepth;
+    private long completed;
+    private long rejected;
+    private long timedOut;
+    private double averageHashMs;
+    private double averageWaitMs;
+
+    public PasswordHashingResponse(int poolSize, int active, int queueDepth, long completed, long rejected,
+                                   long timedOut, double averageHashMs, double averageWaitMs) {
+        this.poolSize = poolSize;
+        this.active = active;
+        this.queueDepth = queueDepth;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.averageHashMs = averageHashMs;
+        this.averageWaitMs = averageWaitMs;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    public double getAverageHashMs() {
+        return averageHashMs;
+    }
+
+    public double getAverageWaitMs() {
+        return averageWaitMs;
+    }
+}
@@ -0,0 +1,59 @@
+package com.homekeeper.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public class TokenPurgeResponse {
+    private boolean running;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lastStartedAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lastFinishedAt;
+
+    private long lastRunDeleted;
+    private long totalDeleted;
+    private long runs;
+    private String lastError;
+
+    public TokenPurgeResponse(boolean running, LocalDateTime lastStartedAt, LocalDateTime lastFinishedAt,
+                              long lastRunDeleted, long totalDeleted, long runs, String lastError) {
+        this.running = running;
+        this.lastStartedAt = lastStartedAt;
+        this.lastFinishedAt = lastFinishedAt;
+        this.lastRunDeleted = lastRunDeleted;
+        this.totalDeleted = totalDeleted;
+        this.runs = runs;
+        this.lastError = lastError;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public LocalDateTime getLastStartedAt() {
+        return lastStartedAt;
+    }
+
+    public LocalDateTime getLastFinishedAt() {
+        return lastFinishedAt;
+    }
+
+    public long getLastRunDeleted() {
+        return lastRunDeleted;
+    }
+
+    public long getTotalDeleted() {
+        return totalDeleted;
+    }
+
+    public long getRuns() {
+        return runs;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,47 @@
+package com.homekeeper.payload.response;
+
+public class UserImportResultResponse {
+    private int row;
+    private String userName;
+    private Long id;
+    private String message;
+
+    public UserImportResultResponse(int row, String userName, Long id, String message) {
+        this.row = row;
+        this.userName = userName;
+        this.id = id;
+        this.message = message;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
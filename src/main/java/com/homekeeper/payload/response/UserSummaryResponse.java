@@ -0,0 +1,74 @@
+package com.homekeeper.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UserSummaryResponse {
+    private Long id;
+    private String userName;
+    private String userEmail;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime creationDate;
+    private List<String> roles = new ArrayList<>();
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String balanceSumOfBalance;
+
+    public UserSummaryResponse(Long id, String userName, String userEmail, LocalDateTime creationDate) {
+        this.id = id;
+        this.userName = userName;
+        this.userEmail = userEmail;
+        this.creationDate = creationDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(LocalDateTime creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public String getBalanceSumOfBalance() {
+        return balanceSumOfBalance;
+    }
+
+    public void setBalanceSumOfBalance(String balanceSumOfBalance) {
+        this.balanceSumOfBalance = balanceSumOfBalance;
+    }
+}
@@ -0,0 +1,37 @@
+package com.homekeeper.repository;
+
+import com.homekeeper.models.CurrentBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface CurrentBalanceRepository extends JpaRepository<CurrentBalance, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from CurrentBalance c where c.userId = :userId")
+    Optional<CurrentBalance> findForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Атомарно прибавляет сумму к текущему балансу, создавая строку при первом пополнении.
+     * Строка остается заблокированной до конца транзакции.
+     * @return баланс после пополнения.
+     */
+    @Query(value = "insert into current_balances as c (user_id, balance, updated_at) values (:userId, :amount, :now) " +
+            "on conflict (user_id) do update set balance = c.balance + excluded.balance, updated_at = excluded.updated_at " +
+            "returning c.balance", nativeQuery = true)
+    BigDecimal addToBalance(@Param("userId") Long userId, @Param("amount") BigDecimal amount,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "update current_balances set last_entry_id = :entryId where user_id = :userId", nativeQuery = true)
+    int setLastEntryId(@Param("userId") Long userId, @Param("entryId") Long entryId);
+
+    @Query(value = "select coalesce(sum(c.balance), 0) from current_balances c", nativeQuery = true)
+    BigDecimal sumOfBalances();
+}
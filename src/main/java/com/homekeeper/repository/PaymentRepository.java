@@ -1,7 +1,20 @@
 package com.homekeeper.repository;
 
 import com.homekeeper.models.Payment;
+import com.homekeeper.repository.projections.PaymentMonthTotal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    @Query(value = "select to_char(p.payment_date, 'YYYY-MM') as month, count(*) as payments, " +
+            "coalesce(sum(coalesce(p.water_cold_sum, 0) + coalesce(p.water_warm_sum, 0) " +
+            "+ coalesce(p.electricity_sum, 0) + coalesce(p.internet_sum, 0) + coalesce(p.water_out_sum, 0) " +
+            "+ coalesce(p.rent_rate_sum, 0) + coalesce(p.rent_sum, 0)), 0) as total " +
+            "from payments p where p.payment_date >= :from and p.payment_date < :to " +
+            "group by to_char(p.payment_date, 'YYYY-MM') order by month", nativeQuery = true)
+    List<PaymentMonthTotal> findMonthlyTotals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -2,7 +2,11 @@ package com.homekeeper.repository;
 
 import com.homekeeper.models.Token;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,10 +15,31 @@ import java.util.Optional;
 @Repository
 public interface TokenRepository extends JpaRepository<Token, Long> {
     Optional<Token> findById(Long id);
-    Token findByToken(String token);
+    Token findByTokenHash(byte[] tokenHash);
 
     List<Token> findByExpiryDateAfter(LocalDateTime localDateTime);
     List<Token> findByExpiryDateBefore(LocalDateTime localDateTime);
-    Boolean existsByToken(String token);
+    Boolean existsByTokenHash(byte[] tokenHash);
+    Boolean existsByExpiryDateBeforeOrActiveFalse(LocalDateTime localDateTime);
+
+    @Query("select t.active from Token t where t.tokenHash = :tokenHash")
+    Boolean findActiveByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("update Token t set t.active = false where t.tokenHash = :tokenHash")
+    int deactivateByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from tokens where id in " +
+            "(select id from tokens where expiry_date < :now limit :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from tokens where id in " +
+            "(select id from tokens where active = false limit :limit)", nativeQuery = true)
+    int deleteInactiveBatch(@Param("limit") int limit);
 
 }
@@ -2,13 +2,69 @@ package com.homekeeper.repository;
 
 import com.homekeeper.models.User;
 import com.homekeeper.models.UserBalance;
+import com.homekeeper.repository.projections.BalanceEntryView;
+import com.homekeeper.repository.projections.BalanceExportView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
     Optional<UserBalance> findById(Long Id);
     Optional<UserBalance> findByUser(User user);
     Optional<UserBalance> findFirstByUserOrderByBalanceDateDesc(User user);
 
+    /**
+     * Все пользователи с записями истории баланса для выгрузки, читаются потоком порциями по 500 строк.
+     * Вызывается внутри транзакции, Stream нужно закрыть.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select u.id as userId, u.userName as userName, u.userEmail as userEmail, b.id as id, " +
+            "b.balanceDate as balanceDate, b.amount as amount, b.balanceSumOfBalance as balance " +
+            "from User u left join u.balances b order by u.id, b.balanceDate, b.id")
+    Stream<BalanceExportView> streamBalanceExport();
+
+    /**
+     * Вся история баланса пользователя от старых записей к новым, читается потоком порциями по 500 строк.
+     * Вызывается внутри транзакции, Stream нужно закрыть.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select b.id as id, b.balanceDate as balanceDate, b.amount as amount, " +
+            "b.balanceSumOfBalance as balance from UserBalance b where b.user.id = :userId " +
+            "order by b.balanceDate, b.id")
+    Stream<BalanceEntryView> streamHistory(@Param("userId") Long userId);
+
+    /**
+     * Первая страница истории, от новых записей к старым. Размер страницы задается page.
+     */
+    @Query("select b.id as id, b.balanceDate as balanceDate, b.amount as amount, " +
+            "b.balanceSumOfBalance as balance from UserBalance b where b.user.id = :userId " +
+            "order by b.balanceDate desc, b.id desc")
+    List<BalanceEntryView> findHistory(@Param("userId") Long userId, Pageable page);
+
+    /**
+     * Следующая страница истории: записи строго после (balanceDate, id) последней записи предыдущей страницы.
+     * Выполняется по индексу idx_user_balances_user_id_date_id без пропуска строк (offset).
+     */
+    @Query("select b.id as id, b.balanceDate as balanceDate, b.amount as amount, " +
+            "b.balanceSumOfBalance as balance from UserBalance b where b.user.id = :userId " +
+            "and (b.balanceDate, b.id) < (:balanceDate, :id) " +
+            "order by b.balanceDate desc, b.id desc")
+    List<BalanceEntryView> findHistoryAfter(@Param("userId") Long userId,
+                                            @Param("balanceDate") LocalDateTime balanceDate,
+                                            @Param("id") Long id,
+                                            Pageable page);
 }
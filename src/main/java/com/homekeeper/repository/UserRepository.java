@@ -1,10 +1,21 @@
 package com.homekeeper.repository;
 
 import com.homekeeper.models.User;
+import com.homekeeper.repository.projections.UserAuthView;
+import com.homekeeper.repository.projections.UserIdView;
+import com.homekeeper.repository.projections.UserRoleView;
+import com.homekeeper.repository.projections.UserSummaryView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,9 +23,48 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUserName(String userName);
+
+    Optional<UserSummaryView> findSummaryById(Long id);
+
+    /**
+     * Пользователи, у которых занято одно из имен или email, одним запросом для пакетного импорта.
+     */
+    List<UserSummaryView> findSummariesByUserNameInOrUserEmailIn(Collection<String> userNames,
+                                                                 Collection<String> userEmails);
+
+    /**
+     * Пользователь с ролями одним запросом, для @CurrentUser.
+     */
+    @EntityGraph(attributePaths = {"roles"})
+    Optional<User> findWithRolesById(Long id);
     Optional<User> findById(Long id);
 
     Boolean existsByUserName(String userName);
     Boolean existsByUserEmail(String userEmail);
 
+    @Query("select u.id as id, u.userName as userName, u.userEmail as userEmail, u.password as password, " +
+            "u.tokenVersion as tokenVersion, r.roleName as roleName " +
+            "from User u left join u.roles r where u.userName = :userName")
+    List<UserAuthView> findAuthViewsByUserName(@Param("userName") String userName);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    @Query("select u.id as id, u.userName as userName from User u where u.userName in :userNames")
+    List<UserIdView> findIdViewsByUserNameIn(@Param("userNames") Collection<String> userNames);
+
+    @Query(value = "select u.id as id, u.userName as userName, u.userEmail as userEmail, " +
+            "u.creationDate as creationDate from User u",
+            countQuery = "select count(u) from User u")
+    Page<UserSummaryView> findSummaries(Pageable pageable);
+
+    @Query("select u.id as userId, r.id as roleId, r.roleName as roleName from User u join u.roles r " +
+            "where u.id in :userIds order by r.id")
+    List<UserRoleView> findRoleViewsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Integer findTokenVersionById(@Param("id") Long id);
+
 }
@@ -0,0 +1,20 @@
+package com.homekeeper.repository.projections;
+
+import com.homekeeper.config.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись истории баланса без загрузки сущности UserBalance и связанного пользователя.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface BalanceEntryView {
+    Long getId();
+
+    LocalDateTime getBalanceDate();
+
+    Money getAmount();
+
+    Money getBalance();
+}
@@ -0,0 +1,27 @@
+package com.homekeeper.repository.projections;
+
+import com.homekeeper.config.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки балансов: пользователь и одна запись его истории баланса.
+ * Для пользователя без записей поля записи пустые.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface BalanceExportView {
+    Long getUserId();
+
+    String getUserName();
+
+    String getUserEmail();
+
+    Long getId();
+
+    LocalDateTime getBalanceDate();
+
+    Money getAmount();
+
+    Money getBalance();
+}
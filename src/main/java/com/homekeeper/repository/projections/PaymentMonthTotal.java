@@ -0,0 +1,19 @@
+package com.homekeeper.repository.projections;
+
+import java.math.BigDecimal;
+
+/**
+ * Итоги платежей за месяц, считаются в БД группировкой по месяцу даты оплаты.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface PaymentMonthTotal {
+    /**
+     * @return месяц в формате yyyy-MM.
+     */
+    String getMonth();
+
+    Long getPayments();
+
+    BigDecimal getTotal();
+}
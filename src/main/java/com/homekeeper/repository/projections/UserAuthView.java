@@ -0,0 +1,23 @@
+package com.homekeeper.repository.projections;
+
+import com.homekeeper.models.ERoles;
+
+/**
+ * Проекция пользователя для аутентификации - одна строка на каждую роль пользователя.
+ * Загружает только поля, нужные для UserDetailsImpl, без балансов и токенов.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface UserAuthView {
+    Long getId();
+
+    String getUserName();
+
+    String getUserEmail();
+
+    String getPassword();
+
+    Integer getTokenVersion();
+
+    ERoles getRoleName();
+}
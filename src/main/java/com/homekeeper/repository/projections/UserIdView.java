@@ -0,0 +1,12 @@
+package com.homekeeper.repository.projections;
+
+/**
+ * Id и имя пользователя, для поиска id нескольких пользователей одним запросом.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface UserIdView {
+    Long getId();
+
+    String getUserName();
+}
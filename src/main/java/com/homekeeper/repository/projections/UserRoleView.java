@@ -0,0 +1,16 @@
+package com.homekeeper.repository.projections;
+
+import com.homekeeper.models.ERoles;
+
+/**
+ * Роль пользователя, для загрузки ролей нескольких пользователей одним запросом.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface UserRoleView {
+    Long getUserId();
+
+    Integer getRoleId();
+
+    ERoles getRoleName();
+}
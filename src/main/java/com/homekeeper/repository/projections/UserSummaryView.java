@@ -0,0 +1,18 @@
+package com.homekeeper.repository.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Основные данные пользователя для списка пользователей, без ролей, балансов и токенов.
+ * @version 0.013
+ * @author habatoo
+ */
+public interface UserSummaryView {
+    Long getId();
+
+    String getUserName();
+
+    String getUserEmail();
+
+    LocalDateTime getCreationDate();
+}
@@ -16,6 +16,8 @@ import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homekeeper.controllers.PasswordHashingExceptionHandler;
+import com.homekeeper.exceptions.PasswordHashingRejectedException;
 
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
@@ -25,15 +27,23 @@ public class AuthEntryPointJwt implements AuthenticationEntryPoint {
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
             throws IOException, ServletException {
-        logger.error("Unauthorized error: {}", authException.getMessage());
-
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
         final Map<String, Object> body = new HashMap<>();
-        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        body.put("error", "Unauthorized");
-        body.put("message", authException.getMessage());
+
+        // отказ пула хеширования Spring Security заворачивает в InternalAuthenticationServiceException
+        if (authException.getCause() instanceof PasswordHashingRejectedException) {
+            logger.error("Password hashing rejected: {}", authException.getCause().getMessage());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            body.put("status", HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            body.put("error", "Service Unavailable");
+            body.put("message", PasswordHashingExceptionHandler.MESSAGE);
+        } else {
+            logger.error("Unauthorized error: {}", authException.getMessage());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
+            body.put("error", "Unauthorized");
+            body.put("message", authException.getMessage());
+        }
         body.put("path", request.getServletPath());
 
         final ObjectMapper mapper = new ObjectMapper();
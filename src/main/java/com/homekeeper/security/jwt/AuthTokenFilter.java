@@ -17,8 +17,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.homekeeper.security.services.UserDetailsImpl;
 import com.homekeeper.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
@@ -26,6 +29,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private UserVersionCache userVersionCache;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -33,15 +39,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt) && jwtUtils.getActiveStatusFromJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
-                        userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Claims claims = jwt != null ? jwtUtils.getClaimsFromJwtToken(jwt) : null;
+            if (claims != null && jwtUtils.getActiveStatusFromJwtToken(jwt)) {
+                UserDetails userDetails = loadUserDetails(claims);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
+                            userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
@@ -50,6 +57,24 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Данные пользователя берутся из claims токена, если версия учетных данных в токене актуальна.
+     * Для токенов, выпущенных без claims пользователя, данные загружаются из БД.
+     * @param claims - проверенные claims токена.
+     * @return данные пользователя или null, если токен устарел.
+     */
+    private UserDetails loadUserDetails(Claims claims) {
+        UserDetailsImpl principal = jwtUtils.getPrincipalFromClaims(claims);
+        if (principal == null) {
+            return userDetailsService.loadPrincipal(claims.getSubject());
+        }
+        if (!userVersionCache.isCurrent(principal.getId(), principal.getTokenVersion())) {
+            logger.error("JWT token was issued for outdated user data: {}", principal.getUsername());
+            return null;
+        }
+        return principal;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,113 @@
+package com.homekeeper.security.jwt;
+
+import com.homekeeper.config.ExpiringCache;
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Кодирование и проверка jwt. Ключ подписи собирается один раз при старте,
+ * проверенные claims кэшируются по SHA-256 отпечатку токена до истечения срока его действия,
+ * поэтому повторный запрос с тем же токеном не выполняет HMAC-SHA512 заново.
+ * @version 0.013
+ * @author habatoo
+ */
+@Component
+public class JwtCodec {
+    private static final Logger logger = LoggerFactory.getLogger(JwtCodec.class);
+    private static final SignatureAlgorithm ALGORITHM = SignatureAlgorithm.HS512;
+
+    private final Key signingKey;
+    private final ExpiringCache<String, Claims> verifiedClaims;
+
+    public JwtCodec(@Value("${homekeeper.app.jwtSecret}") String jwtSecret,
+                    @Value("${homekeeper.app.claimsCacheMaxSize:10000}") int maxSize,
+                    @Value("${homekeeper.app.claimsCacheTtlMs:300000}") long ttlMs) {
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), ALGORITHM.getJcaName());
+        this.verifiedClaims = new ExpiringCache<>(maxSize, ttlMs);
+    }
+
+    /**
+     * Создает подписанный токен.
+     * @param subject - имя пользователя.
+     * @param issuedAt - дата выпуска.
+     * @param expiration - дата истечения срока действия.
+     */
+    public String encode(String subject, Date issuedAt, Date expiration) {
+        return encode(subject, Collections.<String, Object>emptyMap(), issuedAt, expiration);
+    }
+
+    /**
+     * Создает подписанный токен с дополнительными claims.
+     * @param subject - имя пользователя.
+     * @param claims - дополнительные claims.
+     * @param issuedAt - дата выпуска.
+     * @param expiration - дата истечения срока действия.
+     */
+    public String encode(String subject, Map<String, Object> claims, Date issuedAt, Date expiration) {
+        return Jwts.builder().addClaims(claims).setSubject(subject).setIssuedAt(issuedAt)
+                .setExpiration(expiration).signWith(ALGORITHM, signingKey)
+                .compact();
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена и возвращает его claims.
+     * @param token - строка jwt.
+     * @return claims или null, если токен не валиден.
+     */
+    public Claims decode(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+        String key = TokenDigest.key(token);
+        Claims claims = verifiedClaims.get(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        try {
+            claims = Jwts.parser().setSigningKey(signingKey).parseClaimsJws(token).getBody();
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+            return null;
+        } catch (MalformedJwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+            return null;
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+            return null;
+        } catch (UnsupportedJwtException e) {
+            logger.error("JWT token is unsupported: {}", e.getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            logger.error("JWT claims string is empty: {}", e.getMessage());
+            return null;
+        }
+
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            verifiedClaims.put(key, claims);
+        } else {
+            verifiedClaims.put(key, claims, expiration.getTime() - System.currentTimeMillis());
+        }
+        return claims;
+    }
+
+    public long getCacheHitCount() {
+        return verifiedClaims.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return verifiedClaims.getMissCount();
+    }
+}
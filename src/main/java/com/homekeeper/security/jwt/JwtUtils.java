@@ -1,27 +1,30 @@
 package com.homekeeper.security.jwt;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
-import com.homekeeper.models.Token;
 import com.homekeeper.repository.TokenRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import com.homekeeper.security.services.UserDetailsImpl;
 
-
-import io.jsonwebtoken.*;
+import io.jsonwebtoken.Claims;
 
 @Component
 public class JwtUtils {
-    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
-
-    @Value("${homekeeper.app.jwtSecret}")
-    private String jwtSecret;
+    public static final String CLAIM_ID = "id";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_VERSION = "ver";
 
     @Value("${homekeeper.app.jwtExpirationMs}")
     private int jwtExpirationMs;
@@ -29,41 +32,94 @@ public class JwtUtils {
     @Autowired
     TokenRepository tokenRepository;
 
+    @Autowired
+    TokenStatusCache tokenStatusCache;
+
+    @Autowired
+    JwtCodec jwtCodec;
+
+    /**
+     * Создает токен, в подписанные claims которого записаны id, email, роли и версия учетных данных пользователя.
+     * @param authentication - результат успешной аутентификации.
+     */
     public String generateJwtToken(Authentication authentication) {
 
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-        return Jwts.builder().setSubject((userPrincipal.getUsername())).setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs)).signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ID, userPrincipal.getId());
+        claims.put(CLAIM_EMAIL, userPrincipal.getEmail());
+        claims.put(CLAIM_ROLES, userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        claims.put(CLAIM_VERSION, userPrincipal.getTokenVersion());
+
+        Date issuedAt = new Date();
+        return jwtCodec.encode(userPrincipal.getUsername(), claims, issuedAt, new Date(issuedAt.getTime() + jwtExpirationMs));
+    }
+
+    /**
+     * Собирает данные пользователя из claims токена без обращения к БД.
+     * @param claims - проверенные claims токена.
+     * @return данные пользователя без пароля или null, если токен выпущен без claims пользователя.
+     */
+    public UserDetailsImpl getPrincipalFromClaims(Claims claims) {
+        Object id = claims.get(CLAIM_ID);
+        Object version = claims.get(CLAIM_VERSION);
+        if (!(id instanceof Number) || !(version instanceof Number)) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        Object roles = claims.get(CLAIM_ROLES);
+        if (roles instanceof List) {
+            for (Object role : (List<?>) roles) {
+                authorities.add(new SimpleGrantedAuthority(role.toString()));
+            }
+        }
+
+        return new UserDetailsImpl(
+                ((Number) id).longValue(),
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                null,
+                authorities,
+                ((Number) version).intValue());
     }
 
+    /**
+     * @param token - строка jwt.
+     * @return имя пользователя или null, если токен не валиден.
+     */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        Claims claims = jwtCodec.decode(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
+    /**
+     * Проверяет статус токена сначала в кэше, при промахе - в таблице tokens.
+     * Токен, отсутствующий в таблице, считается неактивным.
+     * @param authToken - строка jwt.
+     */
     public boolean getActiveStatusFromJwtToken(String authToken) {
-        Token unActiveToken = tokenRepository.findByToken(authToken);
-        unActiveToken.isActive();
-        return unActiveToken.isActive();
+        Boolean active = tokenStatusCache.getStatus(authToken);
+        if (active == null) {
+            active = Boolean.TRUE.equals(tokenRepository.findActiveByTokenHash(TokenDigest.sha256(authToken)));
+            tokenStatusCache.putStatus(authToken, active);
+        }
+        return active;
     }
 
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException e) {
-            logger.error("Invalid JWT signature: {}", e.getMessage());
-        } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-        }
+        return jwtCodec.decode(authToken) != null;
+    }
 
-        return false;
+    /**
+     * Проверяет токен один раз и возвращает его claims.
+     * @param authToken - строка jwt.
+     * @return claims или null, если токен не валиден.
+     */
+    public Claims getClaimsFromJwtToken(String authToken) {
+        return jwtCodec.decode(authToken);
     }
 }
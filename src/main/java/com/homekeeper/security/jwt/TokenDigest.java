@@ -0,0 +1,40 @@
+package com.homekeeper.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 отпечаток строки jwt. Используется как компактный ключ кэшей вместо самого токена.
+ * @version 0.013
+ * @author habatoo
+ */
+public final class TokenDigest {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    });
+
+    private TokenDigest() {
+    }
+
+    /**
+     * @param token - строка jwt.
+     * @return 32 байта SHA-256.
+     */
+    public static byte[] sha256(String token) {
+        return SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token - строка jwt.
+     * @return отпечаток токена в base64, пригодный как ключ кэша.
+     */
+    public static String key(String token) {
+        return Base64.getEncoder().encodeToString(sha256(token));
+    }
+}
@@ -0,0 +1,64 @@
+package com.homekeeper.security.jwt;
+
+import com.homekeeper.config.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш статуса токенов (активен/отозван), чтобы проверка токена в AuthTokenFilter
+ * не обращалась к таблице tokens на каждый запрос.
+ * Ключом служит SHA-256 отпечаток токена (TokenDigest).
+ * Заполняется при логине, обновляется при логауте. Записи живут не дольше tokenCacheTtlMs,
+ * поэтому отзыв токена на другом экземпляре приложения будет виден не позже этого срока.
+ * @version 0.013
+ * @author habatoo
+ */
+@Component
+public class TokenStatusCache {
+    private final ExpiringCache<String, Boolean> statuses;
+
+    public TokenStatusCache(@Value("${homekeeper.app.tokenCacheMaxSize:10000}") int maxSize,
+                            @Value("${homekeeper.app.tokenCacheTtlMs:300000}") long ttlMs) {
+        this.statuses = new ExpiringCache<>(maxSize, ttlMs);
+    }
+
+    /**
+     * @param token - строка jwt.
+     * @return статус токена или null, если токена нет в кэше.
+     */
+    public Boolean getStatus(String token) {
+        return statuses.get(TokenDigest.key(token));
+    }
+
+    public void putStatus(String token, boolean active) {
+        statuses.put(TokenDigest.key(token), active);
+    }
+
+    public void activate(String token) {
+        putStatus(token, true);
+    }
+
+    public void revoke(String token) {
+        putStatus(token, false);
+    }
+
+    public void clear() {
+        statuses.clear();
+    }
+
+    public long getHitCount() {
+        return statuses.getHitCount();
+    }
+
+    public long getMissCount() {
+        return statuses.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return statuses.getEvictionCount();
+    }
+
+    public int size() {
+        return statuses.size();
+    }
+}
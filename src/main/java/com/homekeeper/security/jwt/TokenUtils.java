@@ -1,12 +1,11 @@
 package com.homekeeper.security.jwt;
 
 import com.homekeeper.models.Token;
+import com.homekeeper.models.User;
 import com.homekeeper.payload.response.JwtResponse;
 import com.homekeeper.repository.TokenRepository;
 import com.homekeeper.repository.UserRepository;
 import com.homekeeper.security.services.UserDetailsImpl;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,9 +25,6 @@ import java.util.stream.Collectors;
 
 @Component
 public class TokenUtils {
-    @Value("${homekeeper.app.jwtSecret}")
-    private String jwtSecret;
-
     @Value("${homekeeper.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
@@ -44,13 +40,33 @@ public class TokenUtils {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    JwtCodec jwtCodec;
+
+    @Autowired
+    TokenStatusCache tokenStatusCache;
+
     /**
      * Записывет в таблицу Token значения токена с датой создания и срока действи токена
      * @param userName
      * @param strToken
      */
     public void makeToken(String userName, String strToken) {
-        Token token = new Token(strToken, userRepository.findByUserName(userName).get());
+        saveToken(userRepository.findByUserName(userName).get(), strToken);
+    }
+
+    /**
+     * Записывет в таблицу Token значения токена по id пользователя без загрузки самого пользователя,
+     * в БД выполняется только insert в таблицу tokens.
+     * @param userId - id пользователя, как правило из UserDetailsImpl после аутентификации.
+     * @param strToken
+     */
+    public void makeToken(Long userId, String strToken) {
+        saveToken(userRepository.getOne(userId), strToken);
+    }
+
+    private void saveToken(User user, String strToken) {
+        Token token = new Token(TokenDigest.sha256(strToken), user);
         token.setActive(true);
         Date date = new Date();
         LocalDateTime createDate = Instant.ofEpochMilli(date.getTime())
@@ -62,8 +78,8 @@ public class TokenUtils {
         token.setCreationDate(createDate);
         token.setExpiryDate(expireDate);
 
-        token.setUser(userRepository.findByUserName(userName).get());
         tokenRepository.save(token);
+        tokenStatusCache.activate(strToken);
     }
 
     /**
@@ -85,17 +101,14 @@ public class TokenUtils {
                     new UsernamePasswordAuthenticationToken(userName,password));
             SecurityContextHolder.getContext().setAuthentication(authentication);
             UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-            String jwt = Jwts.builder().setSubject((userPrincipal.getUsername())).setIssuedAt(dateStartDate)
-                    .setExpiration(dateExpDate).signWith(SignatureAlgorithm.HS512, jwtSecret)
-                    .compact();
+            String jwt = jwtCodec.encode(userPrincipal.getUsername(), dateStartDate, dateExpDate);
 
-            Token token = new Token(jwt, userRepository.findByUserName(userName).get());
+            Token token = new Token(TokenDigest.sha256(jwt), userRepository.getOne(userPrincipal.getId()));
             token.setActive(true);
 
             DateTimeFormatter formatter2 = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             token.setCreationDate(LocalDateTime.parse(strStartDate, formatter2));
             token.setExpiryDate(LocalDateTime.parse(strExpDate, formatter2));
-            token.setUser(userRepository.findByUserName(userName).get());
             tokenRepository.save(token);
         } catch (Exception e) {
 
@@ -103,7 +116,14 @@ public class TokenUtils {
 
     }
 
-    public JwtResponse makeAuth(String username, String password) {
+    /**
+     * Логин пользователя: аутентификация, выпуск jwt и запись токена в таблицу Token.
+     * Пользователь загружается из БД один раз при аутентификации, дальше используется UserDetailsImpl.
+     * @param username
+     * @param password
+     * @return {@code JwtResponse} - токен и данные пользователя.
+     */
+    public JwtResponse login(String username, String password) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username,password));
 
@@ -111,6 +131,22 @@ public class TokenUtils {
         String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        makeToken(userDetails.getId(), jwt);
+
+        return makeResponse(jwt, userDetails);
+    }
+
+    public JwtResponse makeAuth(String username, String password) {
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username,password));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        String jwt = jwtUtils.generateJwtToken(authentication);
+
+        return makeResponse(jwt, (UserDetailsImpl) authentication.getPrincipal());
+    }
+
+    private JwtResponse makeResponse(String jwt, UserDetailsImpl userDetails) {
         List<String> roles = userDetails.getAuthorities().stream()
                 .map(item -> item.getAuthority())
                 .collect(Collectors.toList());
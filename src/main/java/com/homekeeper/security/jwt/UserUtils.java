@@ -4,6 +4,7 @@ import com.homekeeper.models.User;
 import com.homekeeper.payload.response.MessageResponse;
 import com.homekeeper.repository.TokenRepository;
 import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -34,8 +35,15 @@ public class UserUtils {
     @Autowired
     PasswordEncoder encoder;
 
+    @Autowired
+    UserVersionCache userVersionCache;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
     /**
-     * Проверяет username и email на уникальность и отсуствие аналогов в существующей базе
+     * Проверяет username и email на уникальность и отсуствие аналогов в существующей базе.
+     * После изменения данных ранее выданные пользователю токены перестают приниматься.
      * @param user - данные пользователя для изменений
      * @param userFromDb - данные пользователя с дб
      */
@@ -52,11 +60,16 @@ public class UserUtils {
                     .body(new MessageResponse("Error: Email is already in use!"));
         }
 
+        String oldUserName = userFromDb.getUserName();
         userFromDb.setUserName(user.getUserName());
         userFromDb.setUserEmail(user.getUserEmail());
         userFromDb.setPassword(encoder.encode(user.getPassword()));
+        userFromDb.setTokenVersion(userFromDb.getTokenVersion() + 1);
 
         userRepository.save(userFromDb);
+        userVersionCache.invalidate(userFromDb.getId());
+        userDetailsService.evict(oldUserName);
+        userDetailsService.evict(userFromDb.getUserName());
         return ResponseEntity.ok(new MessageResponse("User data was update successfully!"));
 
     }
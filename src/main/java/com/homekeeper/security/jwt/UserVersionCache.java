@@ -0,0 +1,48 @@
+package com.homekeeper.security.jwt;
+
+import com.homekeeper.config.ExpiringCache;
+import com.homekeeper.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш текущих версий учетных данных пользователей.
+ * Версия из claims токена сравнивается с версией пользователя: при изменении пользователя
+ * версия увеличивается, и выданные ранее токены отклоняются.
+ * @version 0.013
+ * @author habatoo
+ */
+@Component
+public class UserVersionCache {
+    private final UserRepository userRepository;
+    private final ExpiringCache<Long, Integer> versions;
+
+    public UserVersionCache(UserRepository userRepository,
+                            @Value("${homekeeper.app.userVersionCacheMaxSize:10000}") int maxSize,
+                            @Value("${homekeeper.app.userVersionCacheTtlMs:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.versions = new ExpiringCache<>(maxSize, ttlMs);
+    }
+
+    /**
+     * @param userId - id пользователя из claims.
+     * @param tokenVersion - версия из claims.
+     * @return true, если пользователь существует и версия токена актуальна.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer version = versions.get(userId, userRepository::findTokenVersionById);
+        return version != null && version == tokenVersion;
+    }
+
+    /**
+     * Сбрасывает закэшированную версию после изменения или удаления пользователя.
+     * @param userId - id пользователя.
+     */
+    public void invalidate(Long userId) {
+        versions.invalidate(userId);
+    }
+
+    public void clear() {
+        versions.clear();
+    }
+}
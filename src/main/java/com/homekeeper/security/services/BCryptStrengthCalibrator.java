@@ -0,0 +1,54 @@
+package com.homekeeper.security.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Подбор стоимости BCrypt под текущее оборудование.
+ * Время проверки пароля замеряется на минимальной стоимости, каждая следующая ступень
+ * стоимости удваивает время. Выбирается максимальная стоимость, при которой проверка
+ * укладывается в целевое время.
+ * Стоимость записывается в каждый хеш ($2a$12$...), поэтому хеши с другой стоимостью
+ * распознаются через upgradeEncoding и перехешируются при логине.
+ * @see CalibratedBCryptPasswordEncoder
+ * @version 0.013
+ * @author habatoo
+ */
+public final class BCryptStrengthCalibrator {
+    private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 16;
+
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * @param targetMs - целевое время проверки пароля, мс.
+     * @return стоимость BCrypt в диапазоне MIN_STRENGTH - MAX_STRENGTH.
+     */
+    public static int calibrate(long targetMs) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        String hash = encoder.encode("calibration");
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double estimatedMs = best / 1e6;
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && estimatedMs * 2 <= targetMs) {
+            estimatedMs *= 2;
+            strength++;
+        }
+        logger.info("BCrypt strength {} selected, estimated verification time {} ms (target {} ms)",
+                strength, Math.round(estimatedMs), targetMs);
+        return strength;
+    }
+}
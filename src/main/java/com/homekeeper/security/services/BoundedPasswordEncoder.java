@@ -0,0 +1,202 @@
+package com.homekeeper.security.services;
+
+import com.homekeeper.exceptions.PasswordHashingRejectedException;
+import com.homekeeper.payload.response.PasswordHashingResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кодировщик паролей, выполняющий хеширование и проверку паролей на отдельном пуле потоков
+ * ограниченного размера с ограниченной очередью.
+ * Хеширование BCrypt нагружает процессор, поэтому при массовом логине оно не должно занимать
+ * все потоки Tomcat: запрос ждет результата не дольше hashingTimeoutMs, при заполненной очереди
+ * сразу получает отказ PasswordHashingRejectedException (http 503).
+ * Ведет счетчики глубины очереди, времени ожидания и времени хеширования.
+ * @version 0.013
+ * @author habatoo
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * @param delegate - кодировщик, выполняющий хеширование.
+     * @param threads - количество потоков хеширования, 0 - половина процессоров (не меньше одного),
+     * чтобы хеширование оставляло процессор для обработки остальных запросов.
+     * @param queueCapacity - максимальное количество ожидающих задач.
+     * @param timeoutMs - максимальное время ожидания результата, мс.
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs) {
+        if (threads < 0 || queueCapacity <= 0 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("Hashing threads, queue capacity and timeout must be positive.");
+        }
+        int poolSize = threads == 0 ? defaultThreads() : threads;
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Количество потоков хеширования по умолчанию: половина процессоров, но не меньше одного.
+     */
+    private static int defaultThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Ставит хеширование пароля в очередь, не дожидаясь результата.
+     * Нужно для пакетной обработки, когда хешируется сразу много паролей.
+     * @param rawPassword - пароль.
+     * @return задача хеширования.
+     * @throws PasswordHashingRejectedException - если очередь заполнена.
+     */
+    public Future<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Дожидается результата задачи хеширования не дольше hashingTimeoutMs.
+     * @param future - задача, полученная из encodeAsync.
+     * @throws PasswordHashingRejectedException - если результат не получен вовремя.
+     */
+    public <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new PasswordHashingRejectedException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitNanos.add(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing queue is full", e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getQueueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return среднее время хеширования, мс.
+     */
+    public double getAverageHashMs() {
+        long count = completed.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * @return среднее время ожидания в очереди, мс.
+     */
+    public double getAverageWaitMs() {
+        long count = completed.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    public PasswordHashingResponse getStatus() {
+        return new PasswordHashingResponse(getPoolSize(), getActiveCount(), getQueueDepth(),
+                getCompletedCount(), getRejectedCount(), getTimedOutCount(),
+                getAverageHashMs(), getAverageWaitMs());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.homekeeper.security.services;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt с подобранной под оборудование стоимостью.
+ * Хеш считается устаревшим, если его стоимость отличается от текущей в любую сторону:
+ * после переноса на более медленный сервер хеши с большей стоимостью тоже перехешируются при логине,
+ * иначе проверка пароля не укладывается в целевое время.
+ * @see BCryptStrengthCalibrator
+ * @version 0.013
+ * @author habatoo
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Pattern COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final int strength;
+
+    /**
+     * @param strength - стоимость BCrypt.
+     */
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Matcher matcher = encodedPassword != null ? COST.matcher(encodedPassword) : null;
+        if (matcher == null || !matcher.find()) {
+            return super.upgradeEncoding(encodedPassword);
+        }
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+}
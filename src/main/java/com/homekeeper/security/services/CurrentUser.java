@@ -0,0 +1,22 @@
+package com.homekeeper.security.services;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметр метода контроллера с текущим пользователем.
+ * Тип параметра Long - id пользователя из данных аутентификации, без запроса к БД.
+ * Тип параметра User - пользователь с ролями, загружается не чаще одного раза за запрос.
+ * Для неаутентифицированного запроса - null.
+ * @see CurrentUserArgumentResolver
+ * @version 0.013
+ * @author habatoo
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
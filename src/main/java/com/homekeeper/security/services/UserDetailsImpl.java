@@ -1,5 +1,6 @@
 package com.homekeeper.security.services;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -10,6 +11,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.homekeeper.models.User;
+import com.homekeeper.repository.projections.UserAuthView;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class UserDetailsImpl implements UserDetails {
@@ -26,13 +28,21 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private int tokenVersion;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
                            Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, 0);
+    }
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -45,7 +55,30 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUserName(),
                 user.getUserEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getTokenVersion());
+    }
+
+    /**
+     * Собирает данные пользователя из строк проекции, по одной строке на роль.
+     * @param rows - непустой список строк проекции одного пользователя.
+     */
+    public static UserDetailsImpl build(List<UserAuthView> rows) {
+        UserAuthView user = rows.get(0);
+        List<GrantedAuthority> authorities = new ArrayList<>(rows.size());
+        for (UserAuthView row : rows) {
+            if (row.getRoleName() != null) {
+                authorities.add(new SimpleGrantedAuthority(row.getRoleName().name()));
+            }
+        }
+
+        return new UserDetailsImpl(
+                user.getId(),
+                user.getUserName(),
+                user.getUserEmail(),
+                user.getPassword(),
+                authorities,
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0);
     }
 
     @Override
@@ -61,6 +94,10 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
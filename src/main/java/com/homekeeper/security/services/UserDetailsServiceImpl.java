@@ -1,27 +1,96 @@
 package com.homekeeper.security.services;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.homekeeper.models.User;
+import com.homekeeper.config.ExpiringCache;
 import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.UserAuthView;
 
+/**
+ * Загрузка данных пользователя для аутентификации.
+ * Данные читаются проекцией (id, имя, email, хеш пароля, роли) без балансов и токенов.
+ * Для логина данные всегда читаются из БД, хеш пароля не кэшируется.
+ * Для запросов с токеном loadPrincipal кэширует данные пользователя без пароля на короткое время,
+ * кэш сбрасывается методом evict при изменении пользователя на этом узле.
+ * Через updatePassword DaoAuthenticationProvider перезаписывает хеш пароля, созданный с устаревшей
+ * стоимостью BCrypt, после успешного логина.
+ * @version 0.013
+ * @author habatoo
+ */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     UserRepository userRepository;
 
+    private final ExpiringCache<String, UserDetailsImpl> principals;
+
+    public UserDetailsServiceImpl(@Value("${homekeeper.app.principalCacheMaxSize:1000}") int maxSize,
+                                  @Value("${homekeeper.app.principalCacheTtlMs:60000}") long ttlMs) {
+        this.principals = new ExpiringCache<>(maxSize, ttlMs);
+    }
+
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUserName(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        List<UserAuthView> rows = userRepository.findAuthViewsByUserName(username);
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException("User Not Found with username: " + username);
+        }
+        return UserDetailsImpl.build(rows);
+    }
+
+    /**
+     * Данные пользователя для запроса с токеном: без хеша пароля, из кэша или из БД.
+     * @param username - имя пользователя из токена.
+     * @throws UsernameNotFoundException - если пользователь не найден.
+     */
+    @Transactional(readOnly = true)
+    public UserDetailsImpl loadPrincipal(String username) throws UsernameNotFoundException {
+        UserDetailsImpl principal = principals.get(username);
+        if (principal != null) {
+            return principal;
+        }
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) loadUserByUsername(username);
+        principal = new UserDetailsImpl(userDetails.getId(), userDetails.getUsername(), userDetails.getEmail(),
+                null, userDetails.getAuthorities(), userDetails.getTokenVersion());
+        principals.put(username, principal);
+        return principal;
+    }
+
+    /**
+     * Сохраняет новый хеш пароля пользователя. Пароль не меняется, поэтому версия токенов не увеличивается.
+     * @param user - данные пользователя после успешной аутентификации.
+     * @param newPassword - хеш пароля с текущей стоимостью.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        userRepository.updatePassword(userDetails.getId(), newPassword);
+        evict(userDetails.getUsername());
+        return new UserDetailsImpl(userDetails.getId(), userDetails.getUsername(), userDetails.getEmail(),
+                newPassword, userDetails.getAuthorities(), userDetails.getTokenVersion());
+    }
+
+    /**
+     * Удаляет данные пользователя из кэша после изменения имени, email, пароля или удаления.
+     * @param username - имя пользователя.
+     */
+    public void evict(String username) {
+        principals.invalidate(username);
+    }
 
-        return UserDetailsImpl.build(user);
+    public void evictAll() {
+        principals.clear();
     }
 
 }
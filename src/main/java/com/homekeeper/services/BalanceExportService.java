@@ -0,0 +1,169 @@
+package com.homekeeper.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homekeeper.config.DateFormats;
+import com.homekeeper.config.Money;
+import com.homekeeper.repository.UserBalanceRepository;
+import com.homekeeper.repository.projections.BalanceExportView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка балансов всех пользователей в CSV или NDJSON.
+ * Строки читаются из БД потоком (курсор с fetch size) внутри read-only транзакции
+ * и сразу записываются в выходной поток, поэтому расход памяти не зависит от размера таблиц.
+ * Сущности User и UserBalance не загружаются, выбираются только нужные столбцы.
+ * @version 0.013
+ * @author habatoo
+ */
+@Service
+public class BalanceExportService {
+    private static final String CSV_HEADER = "userId,userName,userEmail,id,balanceDate,amount,balanceSumOfBalance";
+
+    /**
+     * Формат выгрузки: тип содержимого и расширение файла.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+
+    public BalanceExportService(UserBalanceRepository userBalanceRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.userBalanceRepository = userBalanceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Записывает выгрузку в поток. Вызывается из StreamingResponseBody, вне транзакции запроса.
+     * @param format - формат выгрузки.
+     * @param out - выходной поток ответа, не закрывается.
+     */
+    public void export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            transactionTemplate.execute(status -> {
+                try (Stream<BalanceExportView> rows = userBalanceRepository.streamBalanceExport()) {
+                    if (format == Format.CSV) {
+                        writeCsv(rows.iterator(), writer);
+                    } else {
+                        writeNdjson(rows.iterator(), writer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Iterator<BalanceExportView> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            BalanceExportView row = rows.next();
+            writer.write(String.valueOf(row.getUserId()));
+            writer.write(',');
+            writeCsvValue(writer, row.getUserName());
+            writer.write(',');
+            writeCsvValue(writer, row.getUserEmail());
+            writer.write(',');
+            writeCsvValue(writer, row.getId() == null ? null : row.getId().toString());
+            writer.write(',');
+            writeCsvValue(writer, format(row.getBalanceDate()));
+            writer.write(',');
+            writeCsvValue(writer, format(row.getAmount()));
+            writer.write(',');
+            writeCsvValue(writer, format(row.getBalance()));
+            writer.write('\n');
+        }
+    }
+
+    private void writeNdjson(Iterator<BalanceExportView> rows, Writer writer) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            BalanceExportView row = rows.next();
+            generator.writeStartObject();
+            generator.writeNumberField("userId", row.getUserId());
+            generator.writeStringField("userName", row.getUserName());
+            generator.writeStringField("userEmail", row.getUserEmail());
+            if (row.getId() == null) {
+                generator.writeNullField("id");
+            } else {
+                generator.writeNumberField("id", row.getId());
+            }
+            generator.writeStringField("balanceDate", format(row.getBalanceDate()));
+            generator.writeStringField("amount", format(row.getAmount()));
+            generator.writeStringField("balanceSumOfBalance", format(row.getBalance()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    /**
+     * Значение в кавычках, если содержит запятую, кавычку или перевод строки (RFC 4180).
+     */
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String format(LocalDateTime value) {
+        return value == null ? null : DateFormats.DATE_TIME.format(value);
+    }
+
+    private static String format(Money value) {
+        return value == null ? null : value.toPlainString();
+    }
+}
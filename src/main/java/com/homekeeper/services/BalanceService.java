@@ -0,0 +1,325 @@
+package com.homekeeper.services;
+
+import com.homekeeper.config.Money;
+import com.homekeeper.exceptions.IllegalMoneyFormatException;
+import com.homekeeper.exceptions.InvalidCursorException;
+import com.homekeeper.models.CurrentBalance;
+import com.homekeeper.models.User;
+import com.homekeeper.models.UserBalance;
+import com.homekeeper.payload.request.BulkDepositItemRequest;
+import com.homekeeper.payload.response.BalanceEntryResponse;
+import com.homekeeper.payload.response.BalanceHistoryResponse;
+import com.homekeeper.payload.response.BulkDepositItemResponse;
+import com.homekeeper.repository.CurrentBalanceRepository;
+import com.homekeeper.repository.UserBalanceRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.BalanceEntryView;
+import com.homekeeper.repository.projections.UserIdView;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Изменение баланса пользователя.
+ * Каждое изменение добавляет неизменяемую запись UserBalance (сумма изменения и баланс после него)
+ * и в той же транзакции обновляет строку CurrentBalance.
+ * Пополнение выполняется одним запросом insert ... on conflict do update в БД, без чтения
+ * прежней суммы в приложении, поэтому параллельные пополнения не теряются.
+ * Строка текущего баланса остается заблокированной до конца транзакции: изменения баланса
+ * одного пользователя выполняются по очереди, а изменения балансов разных пользователей друг друга не ждут.
+ * @version 0.013
+ * @author habatoo
+ */
+@Service
+public class BalanceService {
+    private static final String ADD_TO_BALANCES = "insert into current_balances as c (user_id, balance, updated_at) " +
+            "select t.user_id, t.amount, ? from unnest(?::int8[], ?::numeric[]) as t(user_id, amount) " +
+            "order by t.user_id " +
+            "on conflict (user_id) do update set balance = c.balance + excluded.balance, updated_at = excluded.updated_at " +
+            "returning c.user_id, c.balance";
+    private static final String CURSOR_SEPARATOR = "_";
+
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    private final UserRepository userRepository;
+    private final UserBalanceRepository userBalanceRepository;
+    private final CurrentBalanceRepository currentBalanceRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceService(UserRepository userRepository,
+                          UserBalanceRepository userBalanceRepository,
+                          CurrentBalanceRepository currentBalanceRepository,
+                          JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.userBalanceRepository = userBalanceRepository;
+        this.currentBalanceRepository = currentBalanceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Пополнение баланса.
+     * @param userId - id пользователя.
+     * @param amount - сумма пополнения.
+     * @return добавленная запись с балансом после пополнения.
+     */
+    @Transactional
+    public UserBalance deposit(Long userId, Money amount) {
+        LocalDateTime now = LocalDateTime.now();
+        Money balance = Money.of(currentBalanceRepository.addToBalance(userId, amount.getValue(), now),
+                amount.getCurrency());
+        UserBalance entry = saveEntry(userId, amount, balance, now);
+        currentBalanceRepository.setLastEntryId(userId, entry.getId());
+        return entry;
+    }
+
+    /**
+     * Пакетное пополнение балансов нескольких пользователей в одной транзакции.
+     * Пользователи ищутся одним запросом, текущие балансы увеличиваются одним запросом
+     * insert ... select from unnest(...) on conflict do update, записи истории вставляются
+     * пакетами JDBC. Ошибочные позиции (неизвестный пользователь, неверная сумма) пропускаются,
+     * остальные выполняются.
+     * @param deposits - пары имя пользователя и сумма пополнения.
+     * @return результаты в порядке позиций запроса.
+     */
+    @Transactional
+    public List<BulkDepositItemResponse> depositAll(List<BulkDepositItemRequest> deposits) {
+        Set<String> userNames = new HashSet<>();
+        for (BulkDepositItemRequest deposit : deposits) {
+            userNames.add(deposit.getUserName());
+        }
+        Map<String, Long> userIds = new HashMap<>();
+        for (UserIdView user : userRepository.findIdViewsByUserNameIn(userNames)) {
+            userIds.put(user.getUserName(), user.getId());
+        }
+
+        BulkDepositItemResponse[] results = new BulkDepositItemResponse[deposits.size()];
+        Long[] itemUserIds = new Long[deposits.size()];
+        Money[] amounts = new Money[deposits.size()];
+        // Строки current_balances блокируются по возрастанию user_id, чтобы параллельные пакеты не взаимоблокировались
+        Map<Long, Money> totals = new TreeMap<>();
+        for (int i = 0; i < deposits.size(); i++) {
+            BulkDepositItemRequest deposit = deposits.get(i);
+            Long userId = userIds.get(deposit.getUserName());
+            if (userId == null) {
+                results[i] = new BulkDepositItemResponse(deposit.getUserName(), null, null, "User not found!");
+                continue;
+            }
+            try {
+                amounts[i] = new Money(deposit.getBalanceSumOfBalance());
+            } catch (IllegalMoneyFormatException e) {
+                results[i] = new BulkDepositItemResponse(deposit.getUserName(), null, null, e.getMessage());
+                continue;
+            }
+            itemUserIds[i] = userId;
+            Money total = totals.get(userId);
+            totals.put(userId, total == null ? amounts[i] : total.add(amounts[i]));
+        }
+        if (totals.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        // Баланс до пакета = баланс после - сумма пополнений пользователя в пакете
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Money> balances = addToBalances(totals, now);
+        for (Map.Entry<Long, Money> total : totals.entrySet()) {
+            balances.put(total.getKey(), balances.get(total.getKey()).subtract(total.getValue()));
+        }
+
+        List<UserBalance> entries = new ArrayList<>();
+        Map<Long, UserBalance> lastEntries = new LinkedHashMap<>();
+        for (int i = 0; i < deposits.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Money balance = balances.get(itemUserIds[i]).add(amounts[i]);
+            balances.put(itemUserIds[i], balance);
+
+            UserBalance entry = new UserBalance(amounts[i], balance);
+            entry.setUser(userRepository.getOne(itemUserIds[i]));
+            entry.setBalanceDate(now);
+            entries.add(entry);
+            lastEntries.put(itemUserIds[i], entry);
+        }
+        userBalanceRepository.saveAll(entries);
+
+        List<Object[]> lastEntryIds = new ArrayList<>();
+        for (Map.Entry<Long, UserBalance> lastEntry : lastEntries.entrySet()) {
+            lastEntryIds.add(new Object[]{lastEntry.getValue().getId(), lastEntry.getKey()});
+        }
+        jdbcTemplate.batchUpdate("update current_balances set last_entry_id = ? where user_id = ?", lastEntryIds);
+
+        int next = 0;
+        for (int i = 0; i < deposits.size(); i++) {
+            if (results[i] == null) {
+                UserBalance entry = entries.get(next++);
+                results[i] = new BulkDepositItemResponse(deposits.get(i).getUserName(), entry.getId(),
+                        entry.getBalanceSumOfBalance().toPlainString(), "Balance added successfully!");
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Корректировка баланса: добавляет запись с разницей между новым и текущим балансом.
+     * @param userId - id пользователя.
+     * @param balance - новое значение баланса.
+     * @return добавленная запись или null, если у пользователя еще нет записей баланса.
+     */
+    @Transactional
+    public UserBalance correct(Long userId, Money balance) {
+        Optional<CurrentBalance> current = currentBalanceRepository.findForUpdate(userId);
+        if (!current.isPresent() || current.get().getLastEntryId() == null) {
+            return null;
+        }
+        return append(current.get(), balance.subtract(current.get().getBalance()));
+    }
+
+    /**
+     * Страница истории баланса пользователя от новых записей к старым.
+     * Курсор указывает на последнюю запись предыдущей страницы (balanceDate, id), поэтому
+     * стоимость запроса не зависит от номера страницы и длины истории.
+     * @param userId - id пользователя.
+     * @param cursor - nextCursor из предыдущей страницы, null для первой страницы.
+     * @param size - размер страницы, от 1 до MAX_HISTORY_PAGE_SIZE.
+     * @return записи страницы и курсор следующей страницы, null если страница последняя.
+     * @throws InvalidCursorException - если курсор не распознан.
+     */
+    @Transactional(readOnly = true)
+    public BalanceHistoryResponse getHistory(Long userId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        List<BalanceEntryView> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = userBalanceRepository.findHistory(userId, PageRequest.of(0, limit + 1));
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = userBalanceRepository.findHistoryAfter(userId, LocalDateTime.parse(position[0]),
+                    Long.valueOf(position[1]), PageRequest.of(0, limit + 1));
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<BalanceEntryResponse> entries = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            BalanceEntryView row = rows.get(i);
+            entries.add(new BalanceEntryResponse(row.getId(), row.getBalanceDate(),
+                    row.getAmount() == null ? null : row.getAmount().toPlainString(),
+                    row.getBalance() == null ? null : row.getBalance().toPlainString()));
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            BalanceEntryResponse last = entries.get(entries.size() - 1);
+            nextCursor = encodeCursor(last.getBalanceDate(), last.getId());
+        }
+        return new BalanceHistoryResponse(entries, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CurrentBalance> getCurrent(Long userId) {
+        return currentBalanceRepository.findById(userId);
+    }
+
+    /**
+     * Удаляет пользователя вместе с текущим балансом в одной транзакции.
+     * Если пользователь не удален, текущий баланс тоже остается на месте.
+     * @param user - пользователь.
+     */
+    @Transactional
+    public void deleteUser(User user) {
+        if (currentBalanceRepository.existsById(user.getId())) {
+            currentBalanceRepository.deleteById(user.getId());
+        }
+        userRepository.delete(user);
+        userRepository.flush();
+    }
+
+    /**
+     * Очищает историю и текущие балансы всех пользователей.
+     */
+    @Transactional
+    public void clear() {
+        currentBalanceRepository.deleteAllInBatch();
+        userBalanceRepository.deleteAllInBatch();
+    }
+
+    private UserBalance append(CurrentBalance current, Money amount) {
+        Money balance = current.getBalance().add(amount);
+        LocalDateTime now = LocalDateTime.now();
+        UserBalance entry = saveEntry(current.getUserId(), amount, balance, now);
+
+        current.setBalance(balance);
+        current.setLastEntryId(entry.getId());
+        current.setUpdatedAt(now);
+        return entry;
+    }
+
+    private UserBalance saveEntry(Long userId, Money amount, Money balance, LocalDateTime now) {
+        UserBalance entry = new UserBalance(amount, balance);
+        entry.setUser(userRepository.getOne(userId));
+        entry.setBalanceDate(now);
+        return userBalanceRepository.save(entry);
+    }
+
+    private static String encodeCursor(LocalDateTime balanceDate, Long id) {
+        String position = balanceDate + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(position);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Прибавляет суммы к текущим балансам пользователей одним запросом.
+     * @param totals - суммы по id пользователя, строки обновляются в порядке возрастания id.
+     * @return балансы после пополнения по id пользователя.
+     */
+    private Map<Long, Money> addToBalances(Map<Long, Money> totals, LocalDateTime now) {
+        Long[] userIds = new Long[totals.size()];
+        BigDecimal[] amounts = new BigDecimal[totals.size()];
+        int i = 0;
+        for (Map.Entry<Long, Money> total : totals.entrySet()) {
+            userIds[i] = total.getKey();
+            amounts[i] = total.getValue().getValue();
+            i++;
+        }
+
+        Map<Long, Money> balances = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ADD_TO_BALANCES);
+            statement.setTimestamp(1, Timestamp.valueOf(now));
+            statement.setArray(2, connection.createArrayOf("int8", userIds));
+            statement.setArray(3, connection.createArrayOf("numeric", amounts));
+            return statement;
+        }, (RowCallbackHandler) rs -> balances.put(rs.getLong(1), Money.of(rs.getBigDecimal(2))));
+        return balances;
+    }
+}
@@ -0,0 +1,130 @@
+package com.homekeeper.services;
+
+import com.homekeeper.payload.response.TokenPurgeResponse;
+import com.homekeeper.repository.TokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая очистка таблицы tokens от токенов с истекшим сроком действия и отозванных токенов.
+ * Удаляет строки пачками по tokenPurgeBatchSize, каждая пачка - отдельная транзакция,
+ * поэтому очистка не держит долгих блокировок и не выполняется в потоке http запроса.
+ * Отсутствующий в таблице токен считается неактивным, поэтому удаление отозванных токенов безопасно.
+ * @version 0.013
+ * @author habatoo
+ */
+@Service
+public class TokenPurgeService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenPurgeService.class);
+
+    private final TokenRepository tokenRepository;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong totalDeleted = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile long lastRunDeleted;
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile String lastError;
+
+    public TokenPurgeService(TokenRepository tokenRepository,
+                             @Value("${homekeeper.app.tokenPurgeBatchSize:500}") int batchSize) {
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${homekeeper.app.tokenPurgeIntervalMs:3600000}",
+            initialDelayString = "${homekeeper.app.tokenPurgeInitialDelayMs:60000}")
+    public void scheduledPurge() {
+        purge();
+    }
+
+    /**
+     * Запускает очистку в фоновом потоке и сразу возвращает управление.
+     * @return задача очистки, результат - количество удаленных токенов.
+     */
+    public Future<Long> trigger() {
+        return executor.submit(this::purge);
+    }
+
+    /**
+     * Проверяет, есть ли токены для очистки.
+     */
+    public boolean hasTokensToPurge() {
+        return tokenRepository.existsByExpiryDateBeforeOrActiveFalse(LocalDateTime.now());
+    }
+
+    /**
+     * Удаляет токены пачками, пока пачка заполняется полностью.
+     * Если очистка уже идет, повторно не запускается.
+     * @return количество удаленных токенов.
+     */
+    public long purge() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long deleted = 0;
+        lastStartedAt = LocalDateTime.now();
+        lastRunDeleted = 0;
+        lastError = null;
+        try {
+            int batch;
+            do {
+                batch = tokenRepository.deleteExpiredBatch(lastStartedAt, batchSize);
+                deleted += count(batch);
+            } while (batch == batchSize);
+            do {
+                batch = tokenRepository.deleteInactiveBatch(batchSize);
+                deleted += count(batch);
+            } while (batch == batchSize);
+            logger.info("Token purge deleted {} tokens", deleted);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            logger.error("Token purge failed after {} tokens: {}", deleted, e.getMessage());
+        } finally {
+            runs.incrementAndGet();
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        return deleted;
+    }
+
+    public TokenPurgeResponse getStatus() {
+        return new TokenPurgeResponse(
+                running.get(),
+                lastStartedAt,
+                lastFinishedAt,
+                lastRunDeleted,
+                totalDeleted.get(),
+                runs.get(),
+                lastError);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private int count(int batch) {
+        lastRunDeleted += batch;
+        totalDeleted.addAndGet(batch);
+        return batch;
+    }
+}
@@ -0,0 +1,345 @@
+package com.homekeeper.services;
+
+import com.homekeeper.exceptions.PasswordHashingRejectedException;
+import com.homekeeper.models.ERoles;
+import com.homekeeper.models.Role;
+import com.homekeeper.payload.request.SignupRequest;
+import com.homekeeper.payload.response.UserImportResultResponse;
+import com.homekeeper.repository.RoleRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.UserSummaryView;
+import com.homekeeper.security.services.BoundedPasswordEncoder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import static com.homekeeper.models.ERoles.ROLE_USER;
+
+/**
+ * Пакетное создание пользователей, например при заселении дома.
+ * Строки проверяются по ограничениям SignupRequest, имена и email проверяются на уникальность
+ * одним запросом, пароли хешируются параллельно на пуле BoundedPasswordEncoder,
+ * пользователи и их роли вставляются пакетами JDBC в одной транзакции.
+ * Для каждой строки возвращается результат, ошибочные строки пропускаются.
+ * @version 0.013
+ * @author habatoo
+ */
+@Service
+public class UserImportService {
+    private static final String INSERT_USER = "insert into users " +
+            "(id, user_name, user_email, password, creation_date, token_version) values (?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_USER_ROLE = "insert into user_roles (user_id, role_id) values (?, ?)";
+    private static final String NEXT_USER_IDS = "select nextval('users_id_seq') from generate_series(1, ?)";
+    private static final Map<String, String> VIOLATION_MESSAGES = new LinkedHashMap<>();
+
+    static {
+        VIOLATION_MESSAGES.put("userName", "Error: Username must be 3-20 characters!");
+        VIOLATION_MESSAGES.put("email", "Error: Email is not valid!");
+        VIOLATION_MESSAGES.put("password", "Error: Password must be 6-40 characters!");
+    }
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserImportService(UserRepository userRepository,
+                             RoleRepository roleRepository,
+                             BoundedPasswordEncoder passwordEncoder,
+                             Validator validator,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param rows - данные пользователей, роли как в addUser: "admin" - ROLE_ADMIN, остальные - ROLE_USER.
+     * @return результаты в порядке строк: id созданного пользователя либо причина ошибки.
+     * @throws PasswordHashingRejectedException - если пул хеширования занят логинами или не успел обработать пароли.
+     * @throws org.springframework.dao.DataIntegrityViolationException - если имя или email заняли
+     * параллельно с импортом, в этом случае ни один пользователь не создается.
+     */
+    public List<UserImportResultResponse> importUsers(List<SignupRequest> rows) {
+        UserImportResultResponse[] results = new UserImportResultResponse[rows.size()];
+        Map<ERoles, Role> roles = new EnumMap<>(ERoles.class);
+        for (Role role : roleRepository.findAll()) {
+            roles.put(role.getRoleName(), role);
+        }
+
+        Set<String> userNames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            SignupRequest row = rows.get(i);
+            String error = validate(row, roles);
+            if (error == null && !userNames.add(row.getUserName())) {
+                error = "Error: Username is already taken!";
+            }
+            if (error == null && !emails.add(row.getEmail())) {
+                error = "Error: Email is already in use!";
+            }
+            if (error != null) {
+                results[i] = new UserImportResultResponse(i + 1, row == null ? null : row.getUserName(), null, error);
+            }
+        }
+
+        if (!userNames.isEmpty()) {
+            Set<String> takenNames = new HashSet<>();
+            Set<String> takenEmails = new HashSet<>();
+            for (UserSummaryView user : userRepository.findSummariesByUserNameInOrUserEmailIn(userNames, emails)) {
+                takenNames.add(user.getUserName());
+                takenEmails.add(user.getUserEmail());
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                SignupRequest row = rows.get(i);
+                if (takenNames.contains(row.getUserName())) {
+                    results[i] = new UserImportResultResponse(i + 1, row.getUserName(), null,
+                            "Error: Username is already taken!");
+                } else if (takenEmails.contains(row.getEmail())) {
+                    results[i] = new UserImportResultResponse(i + 1, row.getUserName(), null,
+                            "Error: Email is already in use!");
+                }
+            }
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (results[i] == null) {
+                accepted.add(i);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        // Хеширование вне транзакции, чтобы не держать соединение с БД на время BCrypt
+        String[] hashes = hashPasswords(rows, accepted);
+
+        List<Long> ids = transactionTemplate.execute(status -> insertUsers(rows, accepted, hashes, roles));
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i);
+            results[index] = new UserImportResultResponse(index + 1, rows.get(index).getUserName(), ids.get(i),
+                    "User registered successfully!");
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Разбирает CSV с заголовком, например:
+     * userName,email,password,role
+     * petrov,petrov@mail.com,123456,user;admin
+     * Порядок столбцов определяется заголовком, значения с запятыми и кавычками - в двойных кавычках,
+     * несколько ролей разделяются ';'.
+     * @throws IllegalArgumentException - если нет заголовка или в нем нет столбцов userName, email, password.
+     */
+    public static List<SignupRequest> parseCsv(String csv) {
+        List<List<String>> records = readCsvRecords(csv == null ? "" : csv);
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        List<String> header = records.get(0);
+        int userName = header.indexOf("userName");
+        int email = header.indexOf("email");
+        int password = header.indexOf("password");
+        int role = header.indexOf("role");
+        if (userName < 0 || email < 0 || password < 0) {
+            throw new IllegalArgumentException("CSV header must contain userName, email and password");
+        }
+
+        List<SignupRequest> rows = new ArrayList<>(records.size() - 1);
+        for (List<String> record : records.subList(1, records.size())) {
+            SignupRequest row = new SignupRequest();
+            row.setUserName(column(record, userName));
+            row.setEmail(column(record, email));
+            row.setPassword(column(record, password));
+            String roleValue = column(record, role);
+            if (!isBlank(roleValue)) {
+                Set<String> roleNames = new LinkedHashSet<>();
+                for (String name : roleValue.split(";")) {
+                    if (!name.trim().isEmpty()) {
+                        roleNames.add(name.trim());
+                    }
+                }
+                row.setRole(roleNames);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String column(List<String> record, int index) {
+        return index >= 0 && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * Записи CSV по RFC 4180, пустые строки пропускаются.
+     */
+    private static List<List<String>> readCsvRecords(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                empty = false;
+            } else if (c == ',') {
+                record.add(value.toString());
+                value.setLength(0);
+                empty = false;
+            } else if (c == '\n' || c == '\r') {
+                if (!empty || value.length() > 0) {
+                    record.add(value.toString());
+                    records.add(record);
+                }
+                record = new ArrayList<>();
+                value.setLength(0);
+                empty = true;
+            } else {
+                value.append(c);
+                empty = false;
+            }
+        }
+        if (!empty || value.length() > 0) {
+            record.add(value.toString());
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Хеширует пароли на пуле BoundedPasswordEncoder, держа в работе не больше задач, чем потоков пула,
+     * и не больше половины очереди: завершенная задача освобождает поток чуть позже своего результата,
+     * поэтому новые задачи импорта могут ненадолго встать в очередь. Остальная очередь остается
+     * для логинов: логин ждет не дольше одного хеширования импорта и не получает отказ из-за импорта.
+     * @throws PasswordHashingRejectedException - если очередь заполнена логинами, импорт не выполняется.
+     */
+    private String[] hashPasswords(List<SignupRequest> rows, List<Integer> accepted) {
+        int window = Math.max(1, Math.min(passwordEncoder.getPoolSize(), passwordEncoder.getQueueCapacity() / 2));
+        String[] hashes = new String[accepted.size()];
+        Deque<Integer> pending = new ArrayDeque<>();
+        List<Future<String>> futures = new ArrayList<>(Collections.<Future<String>>nCopies(accepted.size(), null));
+        try {
+            for (int i = 0; i < accepted.size(); i++) {
+                if (pending.size() >= window) {
+                    int oldest = pending.removeFirst();
+                    hashes[oldest] = passwordEncoder.await(futures.get(oldest));
+                }
+                futures.set(i, passwordEncoder.encodeAsync(rows.get(accepted.get(i)).getPassword()));
+                pending.addLast(i);
+            }
+            while (!pending.isEmpty()) {
+                int oldest = pending.removeFirst();
+                hashes[oldest] = passwordEncoder.await(futures.get(oldest));
+            }
+        } finally {
+            for (Integer index : pending) {
+                futures.get(index).cancel(true);
+            }
+        }
+        return hashes;
+    }
+
+    private List<Long> insertUsers(List<SignupRequest> rows, List<Integer> accepted, String[] hashes,
+                                   Map<ERoles, Role> roles) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_USER_IDS, Long.class, accepted.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> users = new ArrayList<>(accepted.size());
+        List<Object[]> userRoles = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            SignupRequest row = rows.get(accepted.get(i));
+            users.add(new Object[]{ids.get(i), row.getUserName(), row.getEmail(), hashes[i], now});
+            for (ERoles role : roleNames(row.getRole())) {
+                userRoles.add(new Object[]{ids.get(i), roles.get(role).getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, users);
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+        return ids;
+    }
+
+    /**
+     * Проверки SignupRequest по его ограничениям Bean Validation и наличие ролей в БД.
+     * Если нарушено несколько ограничений, сообщение выбирается по первому полю в порядке VIOLATION_MESSAGES.
+     * @return текст ошибки или null.
+     */
+    private String validate(SignupRequest row, Map<ERoles, Role> roles) {
+        if (row == null) {
+            return "Error: Empty request!";
+        }
+        Set<String> invalid = new HashSet<>();
+        for (ConstraintViolation<SignupRequest> violation : validator.validate(row)) {
+            invalid.add(violation.getPropertyPath().toString());
+        }
+        for (Map.Entry<String, String> field : VIOLATION_MESSAGES.entrySet()) {
+            if (invalid.contains(field.getKey())) {
+                return field.getValue();
+            }
+        }
+        for (ERoles role : roleNames(row.getRole())) {
+            if (!roles.containsKey(role)) {
+                return "Error: Role is not found.";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Роли строки так же, как в addUser: "admin" - ROLE_ADMIN, остальные и отсутствие ролей - ROLE_USER.
+     */
+    private static Set<ERoles> roleNames(Set<String> strRoles) {
+        Set<ERoles> result = new LinkedHashSet<>();
+        if (strRoles == null || strRoles.isEmpty()) {
+            result.add(ROLE_USER);
+            return result;
+        }
+        for (String role : strRoles) {
+            result.add("admin".equals(role) ? ERoles.ROLE_ADMIN : ROLE_USER);
+        }
+        return result;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package com.homekeeper.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homekeeper.config.DateFormats;
+import com.homekeeper.config.Money;
+import com.homekeeper.repository.UserBalanceRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.BalanceEntryView;
+import com.homekeeper.repository.projections.UserRoleView;
+import com.homekeeper.repository.projections.UserSummaryView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Запись данных пользователя для getUserInfo напрямую в поток ответа через JsonGenerator.
+ * Пользователь, роли и история баланса читаются проекциями, история - потоком с fetch size,
+ * и каждая запись сразу пишется в ответ. Сущности и @JsonIdentityInfo не используются,
+ * ответ не собирается в памяти целиком.
+ * @version 0.013
+ * @author habatoo
+ */
+@Service
+public class UserInfoJsonWriter {
+    private final UserRepository userRepository;
+    private final UserBalanceRepository userBalanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+
+    public UserInfoJsonWriter(UserRepository userRepository,
+                              UserBalanceRepository userBalanceRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userBalanceRepository = userBalanceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * @param userId - id пользователя.
+     * @param out - поток ответа, не закрывается.
+     * @return false, если пользователь не найден, в этом случае в поток ничего не записано.
+     */
+    public boolean write(Long userId, OutputStream out) throws IOException {
+        try {
+            Boolean found = transactionTemplate.execute(status -> {
+                Optional<UserSummaryView> user = userRepository.findSummaryById(userId);
+                if (!user.isPresent()) {
+                    return false;
+                }
+                List<UserRoleView> roles = userRepository.findRoleViewsByUserIdIn(Collections.singleton(userId));
+                try (Stream<BalanceEntryView> balances = userBalanceRepository.streamHistory(userId);
+                     JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    writeUserInfo(generator, user.get(), roles, balances.iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            return Boolean.TRUE.equals(found);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Пишет объект {userName, userEmail, creationDate, roles, balances}.
+     * Роли пишутся объектами {id, roleName}, как прежде сериализовалась сущность Role.
+     * Записи баланса - {id, balanceDate, amount, balanceSumOfBalance}, без обратной ссылки на пользователя.
+     * Вынесено отдельно от чтения из БД, чтобы формат можно было проверить и измерить без БД.
+     */
+    public static void writeUserInfo(JsonGenerator generator, UserSummaryView user, List<UserRoleView> roles,
+                                     Iterator<BalanceEntryView> balances) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("userName", user.getUserName());
+        generator.writeStringField("userEmail", user.getUserEmail());
+        generator.writeStringField("creationDate", format(user.getCreationDate()));
+
+        generator.writeArrayFieldStart("roles");
+        for (UserRoleView role : roles) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", role.getRoleId());
+            generator.writeStringField("roleName", role.getRoleName().name());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("balances");
+        while (balances.hasNext()) {
+            BalanceEntryView balance = balances.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", balance.getId());
+            generator.writeStringField("balanceDate", format(balance.getBalanceDate()));
+            generator.writeStringField("amount", format(balance.getAmount()));
+            generator.writeStringField("balanceSumOfBalance", format(balance.getBalance()));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static String format(LocalDateTime value) {
+        return value == null ? null : DateFormats.DATE_TIME.format(value);
+    }
+
+    private static String format(Money value) {
+        return value == null ? null : value.toPlainString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.homekeeper.services;
+
+import com.homekeeper.models.CurrentBalance;
+import com.homekeeper.payload.response.PageResponse;
+import com.homekeeper.payload.response.UserSummaryResponse;
+import com.homekeeper.repository.CurrentBalanceRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.UserRoleView;
+import com.homekeeper.repository.projections.UserSummaryView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Постраничный список пользователей для администратора.
+ * Страница читается одним запросом-проекцией без загрузки сущностей User, роли всех пользователей
+ * страницы - одним запросом, текущие балансы (по запросу) - одним запросом из current_balances.
+ * Количество запросов не зависит от размера страницы.
+ * @version 0.013
+ * @author habatoo
+ */
+@Service
+public class UserListService {
+    /**
+     * Поля, по которым допускается сортировка списка.
+     */
+    public static final Set<String> SORT_PROPERTIES = new HashSet<>(Arrays.asList(
+            "id", "userName", "userEmail", "creationDate"));
+
+    private final UserRepository userRepository;
+    private final CurrentBalanceRepository currentBalanceRepository;
+
+    public UserListService(UserRepository userRepository, CurrentBalanceRepository currentBalanceRepository) {
+        this.userRepository = userRepository;
+        this.currentBalanceRepository = currentBalanceRepository;
+    }
+
+    /**
+     * @param pageable - номер, размер страницы и сортировка.
+     * @param includeBalance - добавить текущий баланс каждого пользователя.
+     * @return страница пользователей с ролями.
+     * @throws IllegalArgumentException - при сортировке по неподдерживаемому полю.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserSummaryResponse> listUsers(Pageable pageable, boolean includeBalance) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+        }
+
+        Page<UserSummaryView> page = userRepository.findSummaries(pageable);
+        Map<Long, UserSummaryResponse> users = new LinkedHashMap<>();
+        for (UserSummaryView user : page.getContent()) {
+            users.put(user.getId(), new UserSummaryResponse(
+                    user.getId(), user.getUserName(), user.getUserEmail(), user.getCreationDate()));
+        }
+
+        if (!users.isEmpty()) {
+            for (UserRoleView role : userRepository.findRoleViewsByUserIdIn(users.keySet())) {
+                users.get(role.getUserId()).getRoles().add(role.getRoleName().name());
+            }
+            if (includeBalance) {
+                for (CurrentBalance balance : currentBalanceRepository.findAllById(users.keySet())) {
+                    users.get(balance.getUserId()).setBalanceSumOfBalance(balance.getBalance().toPlainString());
+                }
+            }
+        }
+
+        return new PageResponse<>(new ArrayList<>(users.values()), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+}
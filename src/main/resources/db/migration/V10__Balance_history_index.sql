@@ -0,0 +1,2 @@
+create index if not exists idx_user_balances_user_id_date_id on user_balances (user_id, balance_date desc, id desc);
+drop index if exists idx_user_balances_user_id_balance_date;
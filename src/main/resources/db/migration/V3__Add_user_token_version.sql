@@ -0,0 +1 @@
+alter table if exists users add column if not exists token_version int4 default 0 not null;
@@ -0,0 +1,7 @@
+-- Tokens are looked up by a 32-byte SHA-256 digest instead of the full jwt string.
+alter table if exists tokens add column if not exists token_hash bytea;
+update tokens set token_hash = sha256(convert_to(token, 'UTF8')) where token_hash is null;
+alter table if exists tokens alter column token_hash set not null;
+alter table if exists tokens add constraint uk_tokens_token_hash unique (token_hash);
+alter table if exists tokens drop constraint if exists UK_na3v9f8s7ucnj16tylrs822qj;
+alter table if exists tokens drop column if exists token;
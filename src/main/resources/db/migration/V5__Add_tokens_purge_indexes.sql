@@ -0,0 +1,2 @@
+create index if not exists idx_tokens_expiry_date on tokens (expiry_date);
+create index if not exists idx_tokens_inactive on tokens (id) where active = false;
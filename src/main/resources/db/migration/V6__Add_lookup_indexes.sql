@@ -0,0 +1,3 @@
+create unique index if not exists uk_users_user_name on users (user_name);
+create unique index if not exists uk_users_user_email on users (user_email);
+create index if not exists idx_user_balances_user_id_balance_date on user_balances (user_id, balance_date desc);
@@ -0,0 +1,16 @@
+alter table user_balances alter column balance_sum_of_balance type numeric(19,2)
+    using trunc(nullif(trim(balance_sum_of_balance), '')::numeric, 2);
+
+alter table tariffs alter column water_cold_rate type numeric(19,2) using trunc(nullif(trim(water_cold_rate), '')::numeric, 2);
+alter table tariffs alter column water_hot_rate type numeric(19,2) using trunc(nullif(trim(water_hot_rate), '')::numeric, 2);
+alter table tariffs alter column electricity_rate type numeric(19,2) using trunc(nullif(trim(electricity_rate), '')::numeric, 2);
+alter table tariffs alter column internet_rate type numeric(19,2) using trunc(nullif(trim(internet_rate), '')::numeric, 2);
+alter table tariffs alter column rent_rate type numeric(19,2) using trunc(nullif(trim(rent_rate), '')::numeric, 2);
+
+alter table payments alter column water_cold_sum type numeric(19,2) using trunc(nullif(trim(water_cold_sum), '')::numeric, 2);
+alter table payments alter column water_warm_sum type numeric(19,2) using trunc(nullif(trim(water_warm_sum), '')::numeric, 2);
+alter table payments alter column electricity_sum type numeric(19,2) using trunc(nullif(trim(electricity_sum), '')::numeric, 2);
+alter table payments alter column internet_sum type numeric(19,2) using trunc(nullif(trim(internet_sum), '')::numeric, 2);
+alter table payments alter column water_out_sum type numeric(19,2) using trunc(nullif(trim(water_out_sum), '')::numeric, 2);
+alter table payments alter column rent_rate_sum type numeric(19,2) using trunc(nullif(trim(rent_rate_sum), '')::numeric, 2);
+alter table payments alter column rent_sum type numeric(19,2) using trunc(nullif(trim(rent_sum), '')::numeric, 2);
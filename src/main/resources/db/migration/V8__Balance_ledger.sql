@@ -0,0 +1,24 @@
+alter table user_balances add column if not exists amount numeric(19,2);
+
+update user_balances b set amount = d.amount
+from (select id, balance_sum_of_balance - coalesce(lag(balance_sum_of_balance)
+        over (partition by user_id order by balance_date, id), 0) as amount
+      from user_balances) d
+where b.id = d.id;
+
+create table if not exists current_balances (
+    user_id int8 not null,
+    balance numeric(19,2) not null,
+    last_entry_id int8,
+    updated_at timestamp,
+    primary key (user_id)
+);
+
+alter table if exists current_balances add constraint fk_current_balances_user_id foreign key (user_id) references users;
+
+insert into current_balances (user_id, balance, last_entry_id, updated_at)
+select distinct on (user_id) user_id, coalesce(balance_sum_of_balance, 0), id, balance_date
+from user_balances
+where user_id is not null
+order by user_id, balance_date desc, id desc
+on conflict (user_id) do nothing;
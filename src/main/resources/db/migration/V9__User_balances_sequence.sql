@@ -0,0 +1,3 @@
+create sequence if not exists user_balances_seq increment by 50;
+
+select setval('user_balances_seq', coalesce((select max(id) from user_balances), 0) + 50, false);
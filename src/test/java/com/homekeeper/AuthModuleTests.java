@@ -2,8 +2,18 @@ package com.homekeeper;
 
 import com.homekeeper.controllers.AuthController;
 import com.homekeeper.payload.response.JwtResponse;
+import com.homekeeper.repository.TokenRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.jwt.TokenDigest;
+import com.homekeeper.security.jwt.TokenStatusCache;
 import com.homekeeper.security.jwt.TokenUtils;
+import com.homekeeper.security.jwt.UserVersionCache;
+import com.homekeeper.security.services.UserDetailsServiceImpl;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.runner.RunWith;
@@ -12,11 +22,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.persistence.EntityManagerFactory;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -41,6 +57,27 @@ public class AuthModuleTests {
     @Autowired
     TokenUtils tokenUtils;
 
+    @Autowired
+    TokenStatusCache tokenStatusCache;
+
+    @Autowired
+    TokenRepository tokenRepository;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    UserVersionCache userVersionCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
     @Value("${homekeeper.app.jwtSecret}")
     private String jwtSecret;
 
@@ -50,6 +87,15 @@ public class AuthModuleTests {
     String username = "admin";
     String password = "12345";
 
+    /**
+     * create-user-before.sql пересоздает пользователей с token_version = 0 в обход кэша версий,
+     * поэтому версии, закэшированные предыдущим тестом, сбрасываются.
+     */
+    @Before
+    public void clearUserVersions() {
+        userVersionCache.clear();
+    }
+
     @Test
     @DisplayName("Проверяет успешную подгрузку контроллера из контекста.")
     public void loadControllers() {
@@ -93,6 +139,76 @@ public class AuthModuleTests {
                 .andExpect((jsonPath("$.roles", Matchers.containsInAnyOrder("ROLE_USER"))));
     }
 
+    @Test
+    @DisplayName("Проверяет, что логин загружает пользователя один раз и записывает токен одним insert.")
+    public void loginQueryCountTest() throws Exception{
+        userDetailsService.evict(username);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12345\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value("admin"));
+
+        // select пользователя с ролями + insert токена
+        Assert.assertEquals(2, statistics.getPrepareStatementCount());
+        Assert.assertEquals(1, statistics.getEntityInsertCount());
+        Assert.assertEquals(0, statistics.getEntityLoadCount());
+        Assert.assertEquals(1, tokenRepository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Проверяет, что загрузка пользователя по имени не загружает его балансы и токены.")
+    public void findByUserNameLoadsNoCollectionsTest() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        Assert.assertEquals(1, statistics.getEntityLoadCount());
+        Assert.assertEquals(0, statistics.getCollectionLoadCount());
+        Assert.assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    @Test
+    @DisplayName("Проверяет перехеширование пароля с устаревшей стоимостью BCrypt при логине.")
+    public void loginRehashesOutdatedPasswordTest() throws Exception{
+        Long id = userRepository.findByUserName(username).get().getId();
+        userRepository.updatePassword(id, new BCryptPasswordEncoder(4).encode(password));
+        userDetailsService.evict(username);
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12345\" }"))
+                .andExpect(status().isOk());
+
+        String rehashed = userRepository.findByUserName(username).get().getPassword();
+        Assert.assertTrue(rehashed.startsWith("$2a$10$"));
+        Assert.assertTrue(passwordEncoder.matches(password, rehashed));
+        userDetailsService.evict(username);
+    }
+
+    @Test
+    @DisplayName("Проверяет перехеширование пароля со стоимостью BCrypt выше текущей при логине.")
+    public void loginRehashesCostlierPasswordTest() throws Exception{
+        Long id = userRepository.findByUserName(username).get().getId();
+        userRepository.updatePassword(id, new BCryptPasswordEncoder(12).encode(password));
+        userDetailsService.evict(username);
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12345\" }"))
+                .andExpect(status().isOk());
+
+        String rehashed = userRepository.findByUserName(username).get().getPassword();
+        Assert.assertTrue(rehashed.startsWith("$2a$10$"));
+        Assert.assertTrue(passwordEncoder.matches(password, rehashed));
+        userDetailsService.evict(username);
+    }
+
     @Test
     @DisplayName("Проверяет выход без токена.")
     public void logoutFailTest() throws Exception {
@@ -123,6 +239,33 @@ public class AuthModuleTests {
                 .andExpect(jsonPath("message").value("You are logout."));
     }
 
+    /**
+     * Проверка повторного использования токена после logout - статус токена берется из кэша
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Проверяет отказ в доступе по токену после выхода.")
+    public void logoutRevokesTokenTest() throws Exception {
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        // makeAuth оставляет аутентификацию в потоке теста, MockMvc подхватил бы ее вместо проверки токена
+        SecurityContextHolder.clearContext();
+        TestSecurityContextHolder.clearContext();
+        assertThat(tokenStatusCache.getStatus(jwtResponse.getAccessToken())).isTrue();
+        assertThat(tokenRepository.findByTokenHash(TokenDigest.sha256(jwtResponse.getAccessToken())).getTokenHash()).hasSize(32);
+
+        this.mockMvc.perform(get("/api/auth/logout")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().is(400))
+                .andExpect(jsonPath("message").value("You are logout."));
+        assertThat(tokenStatusCache.getStatus(jwtResponse.getAccessToken())).isFalse();
+        assertThat(tokenRepository.findActiveByTokenHash(TokenDigest.sha256(jwtResponse.getAccessToken()))).isFalse();
+
+        this.mockMvc.perform(get("/api/auth/logout")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
     /**
      * Проверка метода reset, для корректной проверки требует seсretKey
      * @throws Exception
@@ -139,6 +282,65 @@ public class AuthModuleTests {
                 .andExpect(jsonPath("password").value("12346"));
     }
 
+    /**
+     * Проверка сброса закэшированных данных пользователя после смены пароля
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Проверяет вход с новым паролем после сброса пароля.")
+    public void resetAndLoginTest() throws Exception {
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12345\" }"))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(post("/api/auth/reset")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"secretKey\": \"1234567890\", \"password\": \"12346\" }"))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12345\" }"))
+                .andExpect(status().isUnauthorized());
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12346\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value("admin"));
+
+        userDetailsService.evict(username);
+    }
+
+    /**
+     * Проверка аутентификации по claims токена и отзыва токенов после смены пароля
+     * @throws Exception
+     */
+    @Test
+    @DisplayName("Проверяет отказ в доступе по токену, выданному до сброса пароля.")
+    public void resetInvalidatesTokenTest() throws Exception {
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        // makeAuth оставляет аутентификацию в потоке теста, MockMvc подхватил бы ее вместо проверки токена
+        SecurityContextHolder.clearContext();
+        TestSecurityContextHolder.clearContext();
+
+        this.mockMvc.perform(get("/api/auth/users/getUserInfo")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("userName").value("admin"));
+
+        this.mockMvc.perform(post("/api/auth/reset")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"secretKey\": \"1234567890\", \"password\": \"12345\" }"))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get("/api/auth/users/getUserInfo")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
     /**
      * Проверка метода reset, для корректной проверки требует seсretKey
      * @throws Exception
@@ -0,0 +1,91 @@
+package com.homekeeper;
+
+import com.homekeeper.exceptions.PasswordHashingRejectedException;
+import com.homekeeper.security.services.BoundedPasswordEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedPasswordEncoderTests {
+
+    @Test
+    @DisplayName("Проверяет хеширование и проверку пароля на пуле хеширования")
+    void testEncodeMatches() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 10, 5000);
+        try {
+            String hash = encoder.encode("12345");
+            assertTrue(encoder.matches("12345", hash));
+            assertFalse(encoder.matches("123456", hash));
+            assertEquals(3, encoder.getCompletedCount());
+            assertEquals(0, encoder.getRejectedCount());
+            assertTrue(encoder.getAverageHashMs() > 0);
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверяет отказ при заполненной очереди и по таймауту")
+    void testRejection() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1, 100);
+        try {
+            Future<String> running = encoder.encodeAsync("first");
+            Future<String> queued = encoder.encodeAsync("second");
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.encodeAsync("third"));
+            assertEquals(1, encoder.getRejectedCount());
+            assertEquals(1, encoder.getQueueDepth());
+
+            assertThrows(PasswordHashingRejectedException.class, () -> encoder.await(queued));
+            assertEquals(1, encoder.getTimedOutCount());
+
+            release.countDown();
+            assertEquals("first", encoder.await(running));
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверяет, что по умолчанию хеширование занимает половину процессоров, но не меньше одного потока")
+    void testDefaultPoolSize() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 0, 10, 5000);
+        try {
+            assertEquals(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), encoder.getPoolSize());
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    private static final class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch release;
+
+        private BlockingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.homekeeper;
+
+import com.homekeeper.models.User;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.services.CurrentUser;
+import com.homekeeper.security.services.CurrentUserArgumentResolver;
+import com.homekeeper.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class CurrentUserArgumentResolverTests {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver(userRepository);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Проверяет, что резолвер поддерживает только параметры @CurrentUser типа Long и User")
+    void testSupportsParameter() throws Exception {
+        assertTrue(resolver.supportsParameter(parameter(0)));
+        assertTrue(resolver.supportsParameter(parameter(1)));
+        assertFalse(resolver.supportsParameter(parameter(2)));
+        assertFalse(resolver.supportsParameter(parameter(3)));
+    }
+
+    @Test
+    @DisplayName("Проверяет, что id берется из данных аутентификации без запроса к БД")
+    void testResolveUserId() throws Exception {
+        authenticate(7L);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertEquals(7L, resolver.resolveArgument(parameter(1), null, request, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Проверяет, что пользователь загружается один раз за запрос")
+    void testResolveUserOncePerRequest() throws Exception {
+        authenticate(7L);
+        User user = new User("admin", "admin@admin.com", "pwd");
+        user.setId(7L);
+        when(userRepository.findWithRolesById(7L)).thenReturn(Optional.of(user));
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertSame(user, resolver.resolveArgument(parameter(0), null, request, null));
+        assertSame(user, resolver.resolveArgument(parameter(0), null, request, null));
+        verify(userRepository, times(1)).findWithRolesById(7L);
+
+        resolver.resolveArgument(parameter(0), null, new ServletWebRequest(new MockHttpServletRequest()), null);
+        verify(userRepository, times(2)).findWithRolesById(7L);
+    }
+
+    @Test
+    @DisplayName("Проверяет, что для неаутентифицированного запроса подставляется null")
+    void testResolveAnonymous() throws Exception {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        assertNull(resolver.resolveArgument(parameter(0), null, request, null));
+        assertNull(resolver.resolveArgument(parameter(1), null, request, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static void authenticate(Long id) {
+        UserDetailsImpl principal = new UserDetailsImpl(id, "admin", "admin@admin.com", "pwd",
+                Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        Method method = Handler.class.getDeclaredMethod("handle", User.class, Long.class, Long.class, String.class);
+        return new MethodParameter(method, index);
+    }
+
+    private static class Handler {
+        void handle(@CurrentUser User user, @CurrentUser Long userId, Long other, @CurrentUser String name) {
+        }
+    }
+}
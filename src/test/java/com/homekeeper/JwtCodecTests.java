@@ -0,0 +1,46 @@
+package com.homekeeper;
+
+import com.homekeeper.security.jwt.JwtCodec;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JwtCodecTests {
+    private final JwtCodec jwtCodec = new JwtCodec("1234567890", 100, 60000);
+
+    @Test
+    @DisplayName("Проверяет выпуск токена и однократную проверку подписи при повторном разборе")
+    void testEncodeDecode() {
+        Date now = new Date();
+        String jwt = jwtCodec.encode("admin", now, new Date(now.getTime() + 60000));
+
+        Claims claims = jwtCodec.decode(jwt);
+        assertNotNull(claims);
+        assertEquals("admin", claims.getSubject());
+        assertEquals(1, jwtCodec.getCacheMissCount());
+
+        assertEquals("admin", jwtCodec.decode(jwt).getSubject());
+        assertEquals(1, jwtCodec.getCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Проверяет отказ для токена с чужой подписью, истекшего и пустого токена")
+    void testInvalidTokens() {
+        Date now = new Date();
+        String foreign = new JwtCodec("0987654321", 100, 60000)
+                .encode("admin", now, new Date(now.getTime() + 60000));
+        assertNull(jwtCodec.decode(foreign));
+
+        String expired = jwtCodec.encode("admin", new Date(now.getTime() - 120000), new Date(now.getTime() - 60000));
+        assertNull(jwtCodec.decode(expired));
+
+        assertNull(jwtCodec.decode(""));
+        assertNull(jwtCodec.decode("not.a.token"));
+    }
+}
@@ -0,0 +1,247 @@
+package com.homekeeper;
+
+import com.homekeeper.repository.TokenRepository;
+import com.homekeeper.repository.UserBalanceRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.jwt.TokenDigest;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Накатывает миграции db/migration на встроенный PostgreSQL и проверяет,
+ * что запросы репозиториев на горячих путях выполняются по индексам.
+ * Проверяется SQL, который Hibernate формирует для вызова репозитория: он перехватывается
+ * StatementInspector и разбирается через prepare/explain execute с теми же параметрами.
+ * Последовательное сканирование запрещено (enable_seqscan = off), поэтому
+ * Seq Scan в плане означает, что подходящего индекса нет.
+ * Схема контекста проверяется по миграциям (ddl-auto=validate).
+ */
+@SpringBootTest
+@TestPropertySource(value = "/application-test.properties", properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.homekeeper.MigrationIndexTests$CapturedSql"
+})
+public class MigrationIndexTests {
+    private static final long HISTORY_USER_ID = 500;
+
+    private static EmbeddedPostgres postgres;
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    UserBalanceRepository userBalanceRepository;
+
+    @Autowired
+    TokenRepository tokenRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    /**
+     * Запоминает SQL, отправленный Hibernate в БД.
+     */
+    public static class CapturedSql implements StatementInspector {
+        private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        static void clear() {
+            statements.clear();
+        }
+
+        /**
+         * Первый запрос после clear(): сам запрос репозитория, без последующей загрузки связей.
+         */
+        static String first() {
+            assertFalse(statements.isEmpty(), "no statement captured");
+            return statements.get(0);
+        }
+    }
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .load()
+                .migrate();
+
+        Connection connection = postgres.getPostgresDatabase().getConnection();
+        dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.update("insert into users (id, user_name, user_email, password, creation_date) " +
+                "select g, 'user' || g, 'user' || g || '@mail.com', 'pwd', now() from generate_series(1, 1000) g");
+        jdbcTemplate.update("insert into user_balances (balance_date, amount, balance_sum_of_balance, user_id) " +
+                "select now() - (g || ' days')::interval, '10.00', '10.00', g % 1000 + 1 from generate_series(1, 5000) g");
+        // длинная история у одного пользователя, чтобы страница истории была заметно меньше выборки по user_id
+        jdbcTemplate.update("insert into user_balances (balance_date, amount, balance_sum_of_balance, user_id) " +
+                "select now() - (g || ' hours')::interval, '10.00', '10.00', ? from generate_series(1, 2000) g",
+                HISTORY_USER_ID);
+        jdbcTemplate.update("insert into tokens (active, creation_date, expiry_date, token_hash, user_id) " +
+                "select g % 10 <> 0, now(), now() + ((g - 2500) || ' hours')::interval, " +
+                "sha256(convert_to('token' || g, 'UTF8')), g % 1000 + 1 from generate_series(1, 5000) g");
+        jdbcTemplate.execute("analyze");
+        jdbcTemplate.execute("set enable_seqscan = off");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        dataSource.destroy();
+        postgres.close();
+    }
+
+    @Test
+    @DisplayName("Проверяет, что все миграции применены")
+    void testMigrationsApplied() {
+        Integer failed = jdbcTemplate.queryForObject(
+                "select count(*) from flyway_schema_history where not success", Integer.class);
+        assertEquals(0, failed);
+    }
+
+    @Test
+    @DisplayName("Проверяет загрузку пользователя для аутентификации и проверки уникальности имени и email по индексам")
+    void testUserLookups() {
+        CapturedSql.clear();
+        userRepository.findAuthViewsByUserName("user500");
+        assertIndexScan(CapturedSql.first(), "'user500'");
+
+        CapturedSql.clear();
+        userRepository.existsByUserName("user500");
+        assertIndexScan(CapturedSql.first(), "'user500'", "1");
+
+        CapturedSql.clear();
+        userRepository.existsByUserEmail("user500@mail.com");
+        assertIndexScan(CapturedSql.first(), "'user500@mail.com'", "1");
+    }
+
+    @Test
+    @DisplayName("Проверяет, что страницы истории баланса читаются по индексу без сортировки")
+    void testBalanceHistoryPage() {
+        CapturedSql.clear();
+        userBalanceRepository.findHistory(HISTORY_USER_ID, PageRequest.of(0, 21));
+        assertIndexScanWithoutSort(CapturedSql.first(), String.valueOf(HISTORY_USER_ID), "21");
+
+        LocalDateTime cursorDate = LocalDateTime.now().minusHours(100);
+        Long cursorId = jdbcTemplate.queryForObject("select max(id) from user_balances where user_id = ?",
+                Long.class, HISTORY_USER_ID);
+        CapturedSql.clear();
+        userBalanceRepository.findHistoryAfter(HISTORY_USER_ID, cursorDate, cursorId, PageRequest.of(0, 21));
+        assertIndexScanWithoutSort(CapturedSql.first(), String.valueOf(HISTORY_USER_ID),
+                "'" + cursorDate + "'", String.valueOf(cursorId), "21");
+    }
+
+    @Test
+    @DisplayName("Проверяет поиск токенов по хешу и пакетное удаление по сроку действия и статусу по индексам")
+    void testTokenLookups() {
+        String hash = "'\\x" + hex(TokenDigest.sha256("token42")) + "'";
+        CapturedSql.clear();
+        tokenRepository.findActiveByTokenHash(TokenDigest.sha256("token42"));
+        assertIndexScan(CapturedSql.first(), hash);
+
+        CapturedSql.clear();
+        tokenRepository.findByTokenHash(TokenDigest.sha256("token42"));
+        assertIndexScan(CapturedSql.first(), hash);
+
+        // удаление выполняется в откатываемой транзакции, в план попадает только его SQL
+        TransactionTemplate rollback = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        rollback.execute(status -> {
+            status.setRollbackOnly();
+            CapturedSql.clear();
+            tokenRepository.deleteExpiredBatch(now, 500);
+            assertIndexScan(CapturedSql.first(), "'" + now + "'", "500");
+
+            CapturedSql.clear();
+            tokenRepository.deleteInactiveBatch(500);
+            assertIndexScan(CapturedSql.first(), "500");
+            return null;
+        });
+    }
+
+    private static void assertIndexScan(String sql, String... params) {
+        String plan = explain(sql, params);
+        assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan for: " + sql + "\n" + plan);
+    }
+
+    private static void assertIndexScanWithoutSort(String sql, String... params) {
+        String plan = explain(sql, params);
+        assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan for: " + sql + "\n" + plan);
+        assertFalse(plan.contains("Sort"), () -> "Sort for: " + sql + "\n" + plan);
+        assertTrue(plan.contains("idx_user_balances_user_id_date_id"), () -> "Index not used for: " + sql + "\n" + plan);
+    }
+
+    /**
+     * План запроса с параметрами JDBC (?), подставленными как литералы в explain execute.
+     * @param params - значения параметров в порядке ? в запросе, в виде литералов SQL.
+     */
+    private static String explain(String sql, String... params) {
+        StringBuilder prepared = new StringBuilder();
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                prepared.append('$').append(++index);
+            } else {
+                prepared.append(c);
+            }
+        }
+        assertEquals(params.length, index, () -> "parameter count for: " + sql);
+
+        jdbcTemplate.execute("prepare hot_query as " + prepared);
+        try {
+            String execute = params.length == 0 ? "hot_query" : "hot_query(" + String.join(", ", params) + ")";
+            return String.join("\n", jdbcTemplate.queryForList("explain execute " + execute, String.class));
+        } finally {
+            jdbcTemplate.execute("deallocate hot_query");
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
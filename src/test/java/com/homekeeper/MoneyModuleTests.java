@@ -1,14 +1,19 @@
 package com.homekeeper;
 
 import com.homekeeper.config.Money;
+import com.homekeeper.config.MoneyParser;
 import com.homekeeper.exceptions.IllegalMoneyFormatException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Currency;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -167,4 +172,135 @@ public class MoneyModuleTests {
 
     }
 
+    @Test
+    @DisplayName("Проверяет хранение в минимальных единицах валюты, переполнение и разные валюты")
+    void testMoneyMinorUnits() {
+        Money moneyRUB = new Money("35.559");
+        assertEquals(3555, moneyRUB.getMinorUnits());
+        assertEquals(new BigDecimal("35.55"), moneyRUB.getValue());
+        assertEquals(Money.ofMinorUnits(3555), moneyRUB);
+        assertEquals(Money.of(new BigDecimal("35.55")), moneyRUB);
+        assertEquals("35.55 RUB", moneyRUB.toString());
+
+        Money moneyJPY = new Money("1500.75", Currency.getInstance("JPY"));
+        assertEquals(1500, moneyJPY.getMinorUnits());
+        assertEquals(new BigDecimal("1500"), moneyJPY.getValue());
+
+        Money difference = new Money("10.00").subtract(new Money("15.50"));
+        assertEquals(new BigDecimal("-5.50"), difference.getValue());
+        assertTrue(difference.isNegative());
+
+        assertThrows(ArithmeticException.class,
+                () -> Money.ofMinorUnits(Long.MAX_VALUE).add(Money.ofMinorUnits(1)));
+        assertThrows(ArithmeticException.class,
+                () -> Money.ofMinorUnits(Long.MAX_VALUE / 2).multiplyByInt(3));
+        assertThrows(IllegalMoneyFormatException.class,
+                () -> new Money("100000000000000000000"));
+        assertThrows(IllegalArgumentException.class,
+                () -> moneyRUB.add(new Money("1.00", Currency.getInstance("USD"))));
+    }
+
+    @Test
+    @DisplayName("Проверяет разбор суммы из части строки и сообщения об ошибках разбора")
+    void testMoneyParser() {
+        Currency currencyRUB = Currency.getInstance("RUB");
+        assertEquals(1234, MoneyParser.parseMinorUnits("{\"sum\":12.34}", 7, 12, 2));
+        assertEquals(Money.ofMinorUnits(1200), Money.parse("sum=12", 4, 6, currencyRUB));
+        assertEquals(0, MoneyParser.parseMinorUnits("-0.00", 2));
+        assertEquals(Long.MAX_VALUE, MoneyParser.parseMinorUnits("92233720368547758.07", 2));
+
+        String[] notNumeric = {"", "-", "1.", ".5", "1e5", " 1", "35,50", "k5.50"};
+        for (String strValue : notNumeric) {
+            IllegalMoneyFormatException thrown = assertThrows(IllegalMoneyFormatException.class,
+                    () -> MoneyParser.parseMinorUnits(strValue, 2));
+            assertEquals("Данные '" + strValue + "' содержат не числовые значения, \n либо разделитель чисел не точка!",
+                    thrown.getMessage());
+            assertEquals(strValue, thrown.getStrValue());
+        }
+        assertEquals("Данные '-35.50' содержат отрицательные значения.", assertThrows(
+                IllegalMoneyFormatException.class, () -> new Money("-35.50")).getMessage());
+        assertEquals("Данные '92233720368547758.08' превышают допустимое значение.", assertThrows(
+                IllegalMoneyFormatException.class, () -> new Money("92233720368547758.08")).getMessage());
+    }
+
+    @Test
+    @DisplayName("Проверяет деление суммы на части без потери копеек")
+    void testMoneyAllocate() {
+        Money bill = new Money("100.00");
+        Money[] equalParts = bill.allocate(3);
+        assertEquals(new BigDecimal("33.34"), equalParts[0].getValue());
+        assertEquals(new BigDecimal("33.33"), equalParts[1].getValue());
+        assertEquals(new BigDecimal("33.33"), equalParts[2].getValue());
+        assertEquals(bill, equalParts[0].add(equalParts[1]).add(equalParts[2]));
+
+        Money[] weightedParts = new Money("0.05").allocate(3, 7);
+        assertEquals(Money.ofMinorUnits(2), weightedParts[0]);
+        assertEquals(Money.ofMinorUnits(3), weightedParts[1]);
+
+        long[] parts = new long[4];
+        Money.allocateMinorUnits(1001, new int[]{1, 2, 0, 3}, parts);
+        assertEquals(167, parts[0]);
+        assertEquals(334, parts[1]);
+        assertEquals(0, parts[2]);
+        assertEquals(500, parts[3]);
+
+        Money[] negativeParts = Money.ofMinorUnits(-1000).allocate(3);
+        assertEquals(Money.ofMinorUnits(-334), negativeParts[0]);
+        assertEquals(Money.ofMinorUnits(-333), negativeParts[2]);
+
+        assertThrows(IllegalArgumentException.class, () -> bill.allocate(0));
+        assertThrows(IllegalArgumentException.class, () -> bill.allocate(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> bill.allocate(1, -1));
+    }
+
+    @Test
+    @DisplayName("Проверяет распределение остатка по наибольшим дробным остаткам, при равенстве - первым частям")
+    void testMoneyAllocateRemainder() {
+        long[] parts = new long[5];
+        Money.allocateMinorUnits(7, new int[]{1, 1, 1, 1, 1}, parts);
+        assertArrayEquals(new long[]{2, 2, 1, 1, 1}, parts);
+
+        Money.allocateMinorUnits(10, new int[]{3, 1, 3, 1, 3}, parts);
+        assertArrayEquals(new long[]{3, 1, 3, 1, 2}, parts);
+
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            int[] weights = new int[1 + random.nextInt(50)];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = random.nextInt(10);
+            }
+            weights[random.nextInt(weights.length)] = 1 + random.nextInt(10);
+            long minorUnits = random.nextInt(2_000_001) - 1_000_000;
+
+            long[] actual = new long[weights.length];
+            Money.allocateMinorUnits(minorUnits, weights, actual);
+            assertArrayEquals(largestRemainder(minorUnits, weights), actual);
+        }
+    }
+
+    /**
+     * Эталонный метод наибольшего остатка: сортировка частей по дробному остатку.
+     */
+    private static long[] largestRemainder(long minorUnits, int[] weights) {
+        long totalWeight = Arrays.stream(weights).asLongStream().sum();
+        long step = minorUnits < 0 ? -1 : 1;
+        long remainder = Math.abs(minorUnits % totalWeight);
+        long[] parts = new long[weights.length];
+        long left = Math.abs(minorUnits);
+        for (int i = 0; i < weights.length; i++) {
+            parts[i] = minorUnits / totalWeight * weights[i] + step * (remainder * weights[i] / totalWeight);
+            left -= Math.abs(parts[i]);
+        }
+        Integer[] order = new Integer[weights.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> remainder * weights[i] % totalWeight).reversed()
+                .thenComparingInt(i -> i));
+        for (int i = 0; i < left; i++) {
+            parts[order[i]] += step;
+        }
+        return parts;
+    }
+
 }
@@ -0,0 +1,114 @@
+package com.homekeeper;
+
+import com.homekeeper.controllers.PasswordHashingExceptionHandler;
+import com.homekeeper.exceptions.PasswordHashingRejectedException;
+import com.homekeeper.security.jwt.AuthEntryPointJwt;
+import com.homekeeper.security.services.BoundedPasswordEncoder;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Логин при переполненном пуле хеширования: один поток, одна задача в очереди
+ * и стоимость BCrypt, при которой хеширование занимает пул заметное время.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(value = "/application-test.properties", properties = {
+        "homekeeper.app.hashingThreads=1",
+        "homekeeper.app.hashingQueueCapacity=1",
+        "homekeeper.app.hashingStrength=14"
+})
+@Sql(value = {"/create-user-before.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/create-user-after.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class PasswordHashingOverloadTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    AuthEntryPointJwt authEntryPointJwt;
+
+    private final List<Future<String>> busy = new ArrayList<>();
+
+    @After
+    public void drainPool() throws Exception {
+        for (Future<String> future : busy) {
+            future.get();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверяет ответ 503 при переполненном пуле хеширования для существующего пользователя.")
+    public void loginRejectedForKnownUserTest() throws Exception {
+        fillPool();
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin\", \"password\": \"12345\" }"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("message").value(PasswordHashingExceptionHandler.MESSAGE));
+    }
+
+    @Test
+    @DisplayName("Проверяет ответ 503 при переполненном пуле хеширования для несуществующего пользователя.")
+    public void loginRejectedForUnknownUserTest() throws Exception {
+        fillPool();
+
+        this.mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"nobody\", \"password\": \"12345\" }"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("message").value(PasswordHashingExceptionHandler.MESSAGE));
+    }
+
+    @Test
+    @DisplayName("Проверяет, что точка входа аутентификации отвечает 503 на завернутый отказ пула хеширования.")
+    public void entryPointUnwrapsHashingRejectionTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authEntryPointJwt.commence(new MockHttpServletRequest(), response,
+                new InternalAuthenticationServiceException("Password hashing queue is full",
+                        new PasswordHashingRejectedException("Password hashing queue is full")));
+
+        Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+        Assert.assertEquals(PasswordHashingExceptionHandler.MESSAGE,
+                JsonPath.read(response.getContentAsString(), "$.message"));
+    }
+
+    /**
+     * Занимает поток пула и место в очереди, задача в очереди ставится после того, как поток взял первую.
+     */
+    private void fillPool() throws InterruptedException {
+        busy.add(passwordEncoder.encodeAsync("busy"));
+        while (passwordEncoder.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+        busy.add(passwordEncoder.encodeAsync("queued"));
+    }
+}
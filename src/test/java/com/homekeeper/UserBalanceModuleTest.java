@@ -3,14 +3,26 @@ package com.homekeeper;
 import com.homekeeper.controllers.AuthController;
 import com.homekeeper.controllers.UserBalanceController;
 import com.homekeeper.controllers.UsersController;
+import com.homekeeper.config.Money;
+import com.homekeeper.models.CurrentBalance;
+import com.homekeeper.models.Payment;
 import com.homekeeper.models.UserBalance;
+import com.homekeeper.payload.request.BulkDepositItemRequest;
+import com.homekeeper.payload.request.BulkDepositRequest;
 import com.homekeeper.payload.response.JwtResponse;
+import com.homekeeper.repository.CurrentBalanceRepository;
+import com.homekeeper.repository.PaymentRepository;
 import com.homekeeper.repository.TokenRepository;
 import com.homekeeper.repository.UserBalanceRepository;
 import com.homekeeper.repository.UserRepository;
+import com.homekeeper.repository.projections.PaymentMonthTotal;
 import com.homekeeper.security.jwt.JwtUtils;
 import com.homekeeper.security.jwt.TokenUtils;
+import com.homekeeper.services.BalanceService;
+import com.jayway.jsonpath.JsonPath;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -20,15 +32,28 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import javax.persistence.EntityManagerFactory;
 import javax.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -73,6 +98,21 @@ public class UserBalanceModuleTest {
     @Autowired
     UserBalanceRepository userBalanceRepository;
 
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    CurrentBalanceRepository currentBalanceRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    BalanceService balanceService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     @Value("${homekeeper.app.jwtSecret}")
     private String jwtSecret;
 
@@ -192,4 +232,288 @@ public class UserBalanceModuleTest {
         Assert.assertEquals(0, userBalanceRepository.findAll().size());
 
     }
+
+    @Test
+    @DisplayName("Проверяет хранение сумм в numeric колонках и подсчет итогов в БД.")
+    public void testBalanceAndPaymentTotals() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(post("/api/auth/balances/addFundsToBalance")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"balanceSumOfBalance\": \"100.00\" }"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(post("/api/auth/balances/addFundsToBalance")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"balanceSumOfBalance\": \"50.55\" }"))
+                .andExpect(status().isOk());
+
+        Assert.assertEquals(0, new BigDecimal("150.55").compareTo(currentBalanceRepository.sumOfBalances()));
+
+        LocalDateTime month = LocalDateTime.of(2020, 11, 1, 0, 0);
+        for (int i = 0; i < 2; i++) {
+            Payment payment = new Payment(1, new Money("100.10"), 1, new Money("200.20"), 1, new Money("300.30"),
+                    1, new Money("400.00"), 1, new Money("50.05"), new Money("0"), new Money("1000.00"), 2);
+            payment.setPaymentDate(month.plusDays(i));
+            paymentRepository.save(payment);
+        }
+
+        List<PaymentMonthTotal> totals = paymentRepository.findMonthlyTotals(month, month.plusMonths(1));
+        Assert.assertEquals(1, totals.size());
+        Assert.assertEquals("2020-11", totals.get(0).getMonth());
+        Assert.assertEquals(Long.valueOf(2), totals.get(0).getPayments());
+        Assert.assertEquals(0, new BigDecimal("4101.30").compareTo(totals.get(0).getTotal()));
+        Assert.assertEquals(new Money("100.10"), paymentRepository.findAll().get(0).getWaterColdSum());
+    }
+
+    @Test
+    @DisplayName("Проверяет, что при ошибке удаления пользователя его текущий баланс сохраняется.")
+    public void testDeleteUserKeepsBalanceOnFailure() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        balanceService.deposit(2L, new Money("50.00"));
+
+        // внешняя ссылка на пользователя не дает удалить его строку в users
+        jdbcTemplate.execute("create table user_delete_guard (user_id int8 references users)");
+        try {
+            jdbcTemplate.update("insert into user_delete_guard (user_id) values (2)");
+
+            this.mockMvc.perform(delete("/api/auth/users/2")
+                    .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("message").value("Error: User was not deleted!"));
+        } finally {
+            jdbcTemplate.execute("drop table user_delete_guard");
+        }
+
+        Assert.assertTrue(userRepository.existsById(2L));
+        Assert.assertEquals(new Money("50.00"), currentBalanceRepository.findById(2L).get().getBalance());
+    }
+
+    @Test
+    @DisplayName("Проверяет запись пополнений и корректировок в историю и текущий баланс.")
+    public void testBalanceLedger() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(post("/api/auth/balances/addFundsToBalance")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"balanceSumOfBalance\": \"100.00\" }"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(put("/api/auth/balances/changeBalance")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"balanceSumOfBalance\": \"80.00\" }"))
+                .andExpect(status().isOk());
+
+        List<UserBalance> entries = userBalanceRepository.findAll();
+        Assert.assertEquals(2, entries.size());
+        entries.sort((a, b) -> a.getId().compareTo(b.getId()));
+        Assert.assertEquals(new Money("100.00"), entries.get(0).getAmount());
+        Assert.assertEquals(Money.ofMinorUnits(-2000), entries.get(1).getAmount());
+        Assert.assertEquals(new Money("80.00"), entries.get(1).getBalanceSumOfBalance());
+
+        CurrentBalance currentBalance = currentBalanceRepository.findById(jwtResponse.getId()).get();
+        Assert.assertEquals(new Money("80.00"), currentBalance.getBalance());
+        Assert.assertEquals(entries.get(1).getId(), currentBalance.getLastEntryId());
+
+        this.mockMvc.perform(get("/api/auth/balances")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(entries.get(1).getId()))
+                .andExpect(jsonPath("balanceSumOfBalance").value("80.00"));
+    }
+
+    @Test
+    @DisplayName("Проверяет, что параллельные пополнения баланса не теряются.")
+    public void testConcurrentDeposits() throws Exception{
+        int depositsPerUser = 100;
+        Long[] userIds = {1L, 2L};
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<UserBalance>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < depositsPerUser; i++) {
+                for (Long userId : userIds) {
+                    results.add(executor.submit(() -> balanceService.deposit(userId, new Money("1.01"))));
+                }
+            }
+            for (Future<UserBalance> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Money expected = new Money("1.01").multiplyByInt(depositsPerUser);
+        for (Long userId : userIds) {
+            Assert.assertEquals(expected, currentBalanceRepository.findById(userId).get().getBalance());
+        }
+        Assert.assertEquals(0, expected.multiplyByInt(userIds.length).getValue()
+                .compareTo(currentBalanceRepository.sumOfBalances()));
+
+        // Каждое пополнение видит свой баланс: у каждого пользователя значения 1.01, 2.02 ... 101.00
+        List<UserBalance> entries = userBalanceRepository.findAll();
+        Assert.assertEquals(depositsPerUser * userIds.length, entries.size());
+        Set<Money> balances = new HashSet<>();
+        for (UserBalance entry : entries) {
+            balances.add(entry.getBalanceSumOfBalance());
+        }
+        Assert.assertEquals(depositsPerUser, balances.size());
+        Assert.assertTrue(balances.contains(expected));
+    }
+
+    @Test
+    @DisplayName("Проверяет пакетное пополнение балансов с результатом по каждой позиции.")
+    public void testBulkDeposit() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(post("/api/auth/balances/bulk")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"deposits\": [" +
+                        "{ \"userName\": \"admin\", \"balanceSumOfBalance\": \"100.00\" }," +
+                        "{ \"userName\": \"user\", \"balanceSumOfBalance\": \"30.50\" }," +
+                        "{ \"userName\": \"admin\", \"balanceSumOfBalance\": \"20.00\" }," +
+                        "{ \"userName\": \"ghost\", \"balanceSumOfBalance\": \"5.00\" }," +
+                        "{ \"userName\": \"user\", \"balanceSumOfBalance\": \"abc\" }" +
+                        "] }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].balanceSumOfBalance").value("100.00"))
+                .andExpect(jsonPath("$[1].balanceSumOfBalance").value("30.50"))
+                .andExpect(jsonPath("$[2].balanceSumOfBalance").value("120.00"))
+                .andExpect(jsonPath("$[2].message").value("Balance added successfully!"))
+                .andExpect(jsonPath("$[3].id").isEmpty())
+                .andExpect(jsonPath("$[3].message").value("User not found!"))
+                .andExpect(jsonPath("$[4].id").isEmpty())
+                .andExpect(jsonPath("$[4].message").value(Matchers.containsString("abc")));
+
+        Assert.assertEquals(3, userBalanceRepository.count());
+        Assert.assertEquals(new Money("120.00"), currentBalanceRepository.findById(1L).get().getBalance());
+        Assert.assertEquals(new Money("30.50"), currentBalanceRepository.findById(2L).get().getBalance());
+    }
+
+    @Test
+    @DisplayName("Проверяет отказ в пакетном пополнении с пустой позицией и со слишком большим пакетом.")
+    public void testBulkDepositInvalidRequest() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(post("/api/auth/balances/bulk")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"deposits\": [" +
+                        "{ \"userName\": \"admin\", \"balanceSumOfBalance\": \"100.00\" }," +
+                        "null" +
+                        "] }"))
+                .andExpect(status().isBadRequest());
+
+        StringBuilder deposits = new StringBuilder();
+        for (int i = 0; i <= BulkDepositRequest.MAX_DEPOSITS; i++) {
+            deposits.append(i == 0 ? "" : ",").append("{ \"userName\": \"admin\", \"balanceSumOfBalance\": \"1.00\" }");
+        }
+        this.mockMvc.perform(post("/api/auth/balances/bulk")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"deposits\": [" + deposits + "] }"))
+                .andExpect(status().isBadRequest());
+
+        Assert.assertEquals(0, userBalanceRepository.count());
+    }
+
+    @Test
+    @DisplayName("Проверяет, что записи пакетного пополнения вставляются пакетами JDBC.")
+    public void testBulkDepositBatching() throws Exception{
+        List<BulkDepositItemRequest> deposits = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            BulkDepositItemRequest deposit = new BulkDepositItemRequest();
+            deposit.setUserName(i % 2 == 0 ? "admin" : "user");
+            deposit.setBalanceSumOfBalance("1.00");
+            deposits.add(deposit);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        balanceService.depositAll(deposits);
+
+        Assert.assertEquals(60, statistics.getEntityInsertCount());
+        // select пользователей, выборка id из последовательности и пакеты insert вместо 60 отдельных insert
+        Assert.assertTrue(statistics.getPrepareStatementCount() < 10);
+        Assert.assertEquals(new Money("30.00"), currentBalanceRepository.findById(1L).get().getBalance());
+        Assert.assertEquals(new Money("30.00"), currentBalanceRepository.findById(2L).get().getBalance());
+    }
+
+    @Test
+    @DisplayName("Проверяет постраничную выдачу истории баланса по курсору.")
+    public void testBalanceHistory() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        for (int i = 0; i < 5; i++) {
+            balanceService.deposit(jwtResponse.getId(), new Money("1.00"));
+        }
+        balanceService.deposit(2L, new Money("7.00"));
+
+        String page = this.mockMvc.perform(get("/api/auth/balances/history?size=2")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(2))
+                .andExpect(jsonPath("$.entries[0].balanceSumOfBalance").value("5.00"))
+                .andExpect(jsonPath("$.entries[1].balanceSumOfBalance").value("4.00"))
+                .andExpect(jsonPath("$.entries[1].amount").value("1.00"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(page, "$.nextCursor");
+
+        page = this.mockMvc.perform(get("/api/auth/balances/history?size=2&cursor=" + cursor)
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(2))
+                .andExpect(jsonPath("$.entries[0].balanceSumOfBalance").value("3.00"))
+                .andExpect(jsonPath("$.entries[1].balanceSumOfBalance").value("2.00"))
+                .andReturn().getResponse().getContentAsString();
+        cursor = JsonPath.read(page, "$.nextCursor");
+
+        this.mockMvc.perform(get("/api/auth/balances/history?size=2&cursor=" + cursor)
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(1))
+                .andExpect(jsonPath("$.entries[0].balanceSumOfBalance").value("1.00"))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+        this.mockMvc.perform(get("/api/auth/balances/history?cursor=broken")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message").value("Invalid cursor!"));
+    }
+
+    @Test
+    @DisplayName("Проверяет, что запросы баланса не загружают коллекции пользователя.")
+    public void testBalanceEndpointsLoadNoCollections() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        balanceService.deposit(jwtResponse.getId(), new Money("10.00"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        this.mockMvc.perform(post("/api/auth/balances/addFundsToBalance")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"balanceSumOfBalance\": \"5.00\" }"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/api/auth/balances")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("balanceSumOfBalance").value("15.00"));
+        this.mockMvc.perform(get("/api/auth/balances/history")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.length()").value(2));
+
+        Assert.assertEquals(0, statistics.getCollectionLoadCount());
+        Assert.assertEquals(0, statistics.getCollectionFetchCount());
+    }
 }
@@ -0,0 +1,127 @@
+package com.homekeeper;
+
+import com.homekeeper.models.ERoles;
+import com.homekeeper.models.Role;
+import com.homekeeper.payload.request.SignupRequest;
+import com.homekeeper.payload.response.UserImportResultResponse;
+import com.homekeeper.repository.RoleRepository;
+import com.homekeeper.repository.UserRepository;
+import com.homekeeper.security.services.BoundedPasswordEncoder;
+import com.homekeeper.services.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserImportServiceTests {
+    private static final int ROWS = 20;
+
+    private final BoundedPasswordEncoder passwordEncoder =
+            new BoundedPasswordEncoder(new SlowEncoder(), 2, 2, 5000);
+    private final UserImportService userImportService;
+
+    public UserImportServiceTests() {
+        Role userRole = new Role(ERoles.ROLE_USER);
+        userRole.setId(2);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(Collections.singletonList(userRole));
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyInt())).thenAnswer(invocation ->
+                LongStream.rangeClosed(1, (Integer) invocation.getArgument(2)).boxed().collect(Collectors.toList()));
+
+        userImportService = new UserImportService(mock(UserRepository.class), roleRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), jdbcTemplate,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void stopEncoder() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Проверяет, что импорт не занимает очередь хеширования и логины во время импорта не получают отказ")
+    void testImportLeavesHashingHeadroom() throws Exception {
+        List<SignupRequest> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(row("user" + i, "user" + i + "@mail.com", "123456"));
+        }
+
+        CompletableFuture<List<UserImportResultResponse>> imported =
+                CompletableFuture.supplyAsync(() -> userImportService.importUsers(rows));
+        int logins = 0;
+        while (!imported.isDone()) {
+            assertTrue(passwordEncoder.matches("123456", "123456"));
+            logins++;
+        }
+
+        assertEquals(ROWS, imported.get().size());
+        assertTrue(logins > 0);
+        assertEquals(0, passwordEncoder.getRejectedCount());
+    }
+
+    @Test
+    @DisplayName("Проверяет строки импорта по ограничениям SignupRequest")
+    void testRowValidation() {
+        List<UserImportResultResponse> results = userImportService.importUsers(Arrays.asList(
+                row("ab", "ab@mail.com", "123456"),
+                row("petrov", "petrov", "123456"),
+                row("ivanov", "ivanov@mail.com", "12345"),
+                null,
+                row("sidorov", "sidorov@mail.com", "123456")));
+
+        assertEquals("Error: Username must be 3-20 characters!", results.get(0).getMessage());
+        assertEquals("Error: Email is not valid!", results.get(1).getMessage());
+        assertEquals("Error: Password must be 6-40 characters!", results.get(2).getMessage());
+        assertEquals("Error: Empty request!", results.get(3).getMessage());
+        assertEquals("User registered successfully!", results.get(4).getMessage());
+    }
+
+    private static SignupRequest row(String userName, String email, String password) {
+        SignupRequest row = new SignupRequest();
+        row.setUserName(userName);
+        row.setEmail(email);
+        row.setPassword(password);
+        return row;
+    }
+
+    /**
+     * Хеширование длительностью около 20 мс, как BCrypt с небольшой стоимостью.
+     */
+    private static final class SlowEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
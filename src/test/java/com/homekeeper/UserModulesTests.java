@@ -2,12 +2,20 @@ package com.homekeeper;
 
 import com.homekeeper.controllers.AuthController;
 import com.homekeeper.controllers.UsersController;
+import com.homekeeper.config.Money;
+import com.homekeeper.models.User;
+import com.homekeeper.models.UserBalance;
 import com.homekeeper.payload.response.JwtResponse;
 import com.homekeeper.repository.TokenRepository;
 import com.homekeeper.repository.UserRepository;
 import com.homekeeper.security.jwt.JwtUtils;
 import com.homekeeper.security.jwt.TokenUtils;
+import com.homekeeper.services.BalanceService;
+import com.homekeeper.services.UserListService;
+import com.jayway.jsonpath.JsonPath;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -16,15 +24,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import javax.persistence.EntityManagerFactory;
 import javax.servlet.http.HttpServletRequest;
-import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -64,6 +75,15 @@ public class UserModulesTests {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    BalanceService balanceService;
+
+    @Autowired
+    UserListService userListService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     @Value("${homekeeper.app.jwtSecret}")
     private String jwtSecret;
 
@@ -88,7 +108,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"mod\", \"email\": \"mod@mod.com\", \"password\": \"12345\", \"role\": [\"admin\", \"user\"] }"))
+                .content("{ \"userName\": \"mod\", \"email\": \"mod@mod.com\", \"password\": \"123456\", \"role\": [\"admin\", \"user\"] }"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("message").value("User registered successfully!"));
     }
@@ -102,7 +122,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"guest\", \"email\": \"guest@guest.com\", \"password\": \"12345\", \"role\": [\"user\"] }"))
+                .content("{ \"userName\": \"guest\", \"email\": \"guest@guest.com\", \"password\": \"123456\", \"role\": [\"user\"] }"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("message").value("User registered successfully!"));
     }
@@ -116,7 +136,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"admin2\", \"email\": \"admin2@admin2.com\", \"password\": \"12345\", \"role\": [\"admin\"] }"))
+                .content("{ \"userName\": \"admin2\", \"email\": \"admin2@admin2.com\", \"password\": \"123456\", \"role\": [\"admin\"] }"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("message").value("User registered successfully!"));
     }
@@ -130,7 +150,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"admin\", \"email\": \"admin2@admin2.com\", \"password\": \"12345\", \"role\": [\"admin\"] }"))
+                .content("{ \"userName\": \"admin\", \"email\": \"admin2@admin2.com\", \"password\": \"123456\", \"role\": [\"admin\"] }"))
                 .andExpect(status().is4xxClientError())
                 .andExpect(jsonPath("message").value("Error: Username is already taken!"));
     }
@@ -144,7 +164,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"admin2\", \"email\": \"admin@admin.com\", \"password\": \"12345\", \"role\": [\"admin\"] }"))
+                .content("{ \"userName\": \"admin2\", \"email\": \"admin@admin.com\", \"password\": \"123456\", \"role\": [\"admin\"] }"))
                 .andExpect(status().is4xxClientError())
                 .andExpect(jsonPath("message").value("Error: Email is already in use!"));
     }
@@ -158,7 +178,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"cat\", \"email\": \"cat@cat.com\", \"password\": \"12345\", \"role\": [\"cat\"] }"))
+                .content("{ \"userName\": \"cat\", \"email\": \"cat@cat.com\", \"password\": \"123456\", \"role\": [\"cat\"] }"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("message").value("User registered successfully!"));
     }
@@ -172,7 +192,7 @@ public class UserModulesTests {
         this.mockMvc.perform(post("/api/auth/users/addUser")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
                 .contentType(MediaType.APPLICATION_JSON)
-                .content("{ \"userName\": \"admin2\", \"email\": \"admin2@admin2.com\", \"password\": \"12345\", \"role\": [\"admin\"] }"))
+                .content("{ \"userName\": \"admin2\", \"email\": \"admin2@admin2.com\", \"password\": \"123456\", \"role\": [\"admin\"] }"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("message").value("User registered successfully!"));
     }
@@ -241,6 +261,49 @@ public class UserModulesTests {
                 //.andExpect(jsonPath("message").value("You can edit only yourself data."));
     }
 
+    @Test
+    @DisplayName("Проверяет, что имя пользователя из невалидного токена не определяется.")
+    public void testUserNameFromInvalidToken() {
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+
+        Assert.assertEquals(username, jwtUtils.getUserNameFromJwtToken(jwtResponse.getAccessToken()));
+        Assert.assertNull(jwtUtils.getUserNameFromJwtToken(jwtResponse.getAccessToken() + "x"));
+        Assert.assertNull(jwtUtils.getUserNameFromJwtToken(""));
+    }
+
+    @Test
+    @DisplayName("Проверяет, что при изменении своих данных пользователь загружается один раз.")
+    public void testChangeMyUserDataLoadsUserOnce() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth("user", password);
+        tokenUtils.makeToken("user", jwtResponse.getAccessToken());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        this.mockMvc.perform(put("/api/auth/users/2")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"user2\", \"userEmail\": \"user2@user2.com\", \"password\": \"123456\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("message").value("User data was update successfully!"));
+
+        Assert.assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        Assert.assertEquals("user2@user2.com", userRepository.findByUserName("user2").get().getUserEmail());
+    }
+
+    @Test
+    @DisplayName("Проверяет изменение данных несуществующего пользователя.")
+    public void testChangeMissingUserData() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(put("/api/auth/users/999")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"userName\": \"admin2\", \"userEmail\": \"admin2@admin2.com\" }"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("message").value("User not found!"));
+    }
+
     @Test
     @DisplayName("Проверяет удаление пользователя автором с ролью ADMIN.")
     public void testDeleteUserByAdmin() throws Exception{
@@ -271,14 +334,25 @@ public class UserModulesTests {
     public void testShowAllUsers() throws Exception{
         JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
         tokenUtils.makeToken(username, jwtResponse.getAccessToken());
-        Date date = new Date();
-        String resp = "[{\"balances\":[],\"roles\":[{\"id\":1,\"roleName\":\"ROLE_ADMIN\"},{\"id\":2,\"roleName\":\"ROLE_USER\"}],\"userEmail\":\"admin@admin.com\",\"id\":1,\"creationDate\":\"" + date + "\",\"userName\":\"admin\"},{\"balances\":[],\"roles\":[{\"id\":2,\"roleName\":\"ROLE_USER\"}],\"userEmail\":\"user@user.com\",\"id\":2,\"creationDate\":\"" + date + "\",\"userName\":\"user\"}]";
 
         this.mockMvc.perform(get("/api/auth/users/")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON_VALUE))
-                .andReturn().getResponse().getContentAsString().equals(resp);
+                .andExpect(jsonPath("page").value(0))
+                .andExpect(jsonPath("size").value(20))
+                .andExpect(jsonPath("totalElements").value(2))
+                .andExpect(jsonPath("totalPages").value(1))
+                .andExpect(jsonPath("content", Matchers.hasSize(2)))
+                .andExpect(jsonPath("content[0].id").value(1))
+                .andExpect(jsonPath("content[0].userName").value("admin"))
+                .andExpect(jsonPath("content[0].userEmail").value("admin@admin.com"))
+                .andExpect(jsonPath("content[0].roles", Matchers.containsInAnyOrder("ROLE_ADMIN", "ROLE_USER")))
+                .andExpect(jsonPath("content[0].balanceSumOfBalance").doesNotExist())
+                .andExpect(jsonPath("content[1].id").value(2))
+                .andExpect(jsonPath("content[1].userName").value("user"))
+                .andExpect(jsonPath("content[1].userEmail").value("user@user.com"))
+                .andExpect(jsonPath("content[1].roles", Matchers.contains("ROLE_USER")));
     }
 
     @Test
@@ -319,10 +393,215 @@ public class UserModulesTests {
         Assert.assertEquals(2, tokenRepository.findAll().size());
 
         this.mockMvc.perform(delete("/api/auth/users/tokens")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("message").value("Tokens purge started!"));
+
+        // Purge runs in background, wait for it
+        long deadline = System.currentTimeMillis() + 10000;
+        while (tokenRepository.findAll().size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(1, tokenRepository.findAll().size());
+
+        this.mockMvc.perform(get("/api/auth/users/tokens")
                 .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("message").value("Tokens with expiry date was deleted successfully!"));
+                .andExpect(jsonPath("totalDeleted").exists());
+    }
 
-        Assert.assertEquals(1, tokenRepository.findAll().size());
+    @Test
+    @DisplayName("Проверяет потоковую выгрузку балансов в CSV и NDJSON.")
+    public void testExportBalances() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        balanceService.deposit(1L, new Money("100.00"));
+        balanceService.deposit(1L, new Money("20.50"));
+
+        MvcResult csv = this.mockMvc.perform(get("/api/auth/users/export")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = this.mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        Assert.assertEquals(4, lines.length);
+        Assert.assertEquals("userId,userName,userEmail,id,balanceDate,amount,balanceSumOfBalance", lines[0]);
+        Assert.assertTrue(lines[1].startsWith("1,admin,admin@admin.com,"));
+        Assert.assertTrue(lines[1].endsWith(",100.00,100.00"));
+        Assert.assertTrue(lines[2].endsWith(",20.50,120.50"));
+        Assert.assertEquals("2,user,user@user.com,,,,", lines[3]);
+
+        MvcResult ndjson = this.mockMvc.perform(get("/api/auth/users/export?format=ndjson")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        lines = this.mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        Assert.assertEquals(3, lines.length);
+        Assert.assertEquals("120.50", JsonPath.read(lines[1], "$.balanceSumOfBalance"));
+        Assert.assertEquals("user", JsonPath.read(lines[2], "$.userName"));
+        Assert.assertNull(JsonPath.read(lines[2], "$.id"));
+
+        this.mockMvc.perform(get("/api/auth/users/export?format=xml")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Error: Unknown export format!"));
+    }
+
+    @Test
+    @DisplayName("Проверяет постраничный список пользователей с ролями и текущим балансом.")
+    public void testUserListPage() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        balanceService.deposit(2L, new Money("7.00"));
+
+        this.mockMvc.perform(get("/api/auth/users?page=0&size=1&sort=userName,desc&includeBalance=true")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].userName").value("user"))
+                .andExpect(jsonPath("$.content[0].roles[0]").value("ROLE_USER"))
+                .andExpect(jsonPath("$.content[0].balanceSumOfBalance").value("7.00"));
+
+        this.mockMvc.perform(get("/api/auth/users")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].userName").value("admin"))
+                .andExpect(jsonPath("$.content[0].roles.length()").value(2))
+                .andExpect(jsonPath("$.content[0].balanceSumOfBalance").doesNotExist());
+
+        this.mockMvc.perform(get("/api/auth/users?sort=password")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message").value("Error: Unsupported sort property!"));
+    }
+
+    @Test
+    @DisplayName("Проверяет, что страница пользователей читается тремя запросами независимо от количества пользователей.")
+    public void testUserListQueryCount() throws Exception{
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userListService.listUsers(PageRequest.of(0, 20, Sort.by("id")), true);
+
+        // страница пользователей, роли пользователей страницы, текущие балансы
+        Assert.assertEquals(3, statistics.getPrepareStatementCount());
+        Assert.assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Проверяет, что getUserInfo читает пользователя, роли и баланс проекциями без загрузки коллекций.")
+    public void testUserInfoFetchPlan() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        balanceService.deposit(1L, new Money("10.00"));
+        balanceService.deposit(1L, new Money("5.00"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        this.mockMvc.perform(get("/api/auth/users/getUserInfo")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.userName").value("admin"))
+                .andExpect(jsonPath("$.roles.length()").value(2))
+                .andExpect(jsonPath("$.balances.length()").value(2))
+                .andExpect(jsonPath("$.balances[0].amount").value("10.00"))
+                .andExpect(jsonPath("$.balances[1].balanceSumOfBalance").value("15.00"));
+
+        Assert.assertEquals(0, statistics.getCollectionLoadCount());
+        Assert.assertEquals(0, statistics.getEntityStatistics(UserBalance.class.getName()).getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Проверяет формат ответа getUserInfo: роли объектами {id, roleName}, записи баланса без ссылки на пользователя.")
+    public void testUserInfoResponseShape() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+        balanceService.deposit(1L, new Money("10.00"));
+
+        this.mockMvc.perform(get("/api/auth/users/getUserInfo")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roles[0].id").value(1))
+                .andExpect(jsonPath("$.roles[0].roleName").value("ROLE_ADMIN"))
+                .andExpect(jsonPath("$.roles[1].id").value(2))
+                .andExpect(jsonPath("$.roles[1].roleName").value("ROLE_USER"))
+                .andExpect(jsonPath("$.balances[0].id").isNumber())
+                .andExpect(jsonPath("$.balances[0].balanceDate").isString())
+                .andExpect(jsonPath("$.balances[0].amount").value("10.00"))
+                .andExpect(jsonPath("$.balances[0].balanceSumOfBalance").value("10.00"))
+                .andExpect(jsonPath("$.balances[0].user").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Проверяет пакетный импорт пользователей из json с результатом по каждой строке.")
+    public void testImportUsers() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(post("/api/auth/users/import")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" +
+                        "{ \"userName\": \"petrov\", \"email\": \"petrov@mail.com\", \"password\": \"123456\", \"role\": [\"admin\", \"user\"] }," +
+                        "{ \"userName\": \"admin\", \"email\": \"admin3@mail.com\", \"password\": \"123456\" }," +
+                        "{ \"userName\": \"ivanov\", \"email\": \"user@user.com\", \"password\": \"123456\" }," +
+                        "{ \"userName\": \"petrov\", \"email\": \"petrov2@mail.com\", \"password\": \"123456\" }," +
+                        "{ \"userName\": \"sidorov\", \"email\": \"sidorov\", \"password\": \"123456\" }," +
+                        "{ \"userName\": \"sidorov\", \"email\": \"sidorov@mail.com\", \"password\": \"654321\" }" +
+                        "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].message").value("User registered successfully!"))
+                .andExpect(jsonPath("$[0].id").isNotEmpty())
+                .andExpect(jsonPath("$[1].message").value("Error: Username is already taken!"))
+                .andExpect(jsonPath("$[2].message").value("Error: Email is already in use!"))
+                .andExpect(jsonPath("$[3].message").value("Error: Username is already taken!"))
+                .andExpect(jsonPath("$[4].message").value("Error: Email is not valid!"))
+                .andExpect(jsonPath("$[5].row").value(6))
+                .andExpect(jsonPath("$[5].message").value("User registered successfully!"));
+
+        Assert.assertEquals(4, userRepository.count());
+        User petrov = userRepository.findWithRolesById(userRepository.findByUserName("petrov").get().getId()).get();
+        Assert.assertEquals(2, petrov.getRoles().size());
+        Assert.assertEquals(1, userRepository.findWithRolesById(
+                userRepository.findByUserName("sidorov").get().getId()).get().getRoles().size());
+
+        JwtResponse imported = tokenUtils.makeAuth("sidorov", "654321");
+        Assert.assertEquals("sidorov", imported.getUserName());
+    }
+
+    @Test
+    @DisplayName("Проверяет пакетный импорт пользователей из CSV.")
+    public void testImportUsersCsv() throws Exception{
+        JwtResponse jwtResponse = tokenUtils.makeAuth(username, password);
+        tokenUtils.makeToken(username, jwtResponse.getAccessToken());
+
+        this.mockMvc.perform(post("/api/auth/users/import")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType("text/csv")
+                .content("userName,email,password,role\n" +
+                        "petrov,petrov@mail.com,\"12,3456\",admin;user\n" +
+                        "\n" +
+                        "ivanov,ivanov@mail.com,123456,\r\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].message").value("User registered successfully!"))
+                .andExpect(jsonPath("$[1].message").value("User registered successfully!"));
+
+        Assert.assertEquals("petrov", tokenUtils.makeAuth("petrov", "12,3456").getUserName());
+
+        this.mockMvc.perform(post("/api/auth/users/import")
+                .header("Authorization", "Bearer " + jwtResponse.getAccessToken())
+                .contentType("text/csv")
+                .content("name,mail\npetrov,petrov@mail.com\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message").value("Error: Invalid CSV header!"));
     }
 }
@@ -3,6 +3,7 @@ DELETE FROM payments_tariffs;
 DELETE FROM tariffs;
 DELETE FROM tokens;
 DELETE FROM user_roles;
+DELETE FROM current_balances;
 DELETE FROM user_balances;
 DELETE FROM roles;
 DELETE FROM users;